@@ -0,0 +1,57 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Auditing(생성/수정 일시, 생성/수정자) 비용: 한 트랜잭션에 회원 members 건 저장 (batchSize 마다 flush + clear)
+ * auditing=false 는 datajpa.auditing.enabled=false 로 기동 (값을 채우지 않음)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 10, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AuditingBenchmark {
+
+    @Param({"true", "false"})
+    private boolean auditing;
+
+    @Param({"1000"})
+    private int members;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate transaction;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("datajpa.auditing.enabled=" + auditing,
+                "logging.level.study.datajpa.repository.metrics=error");
+        memberRepository = context.getBean(MemberRepository.class);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @Setup(Level.Iteration)
+    public void clean() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Integer saveAllBatched() {
+        return transaction.execute(status ->
+                memberRepository.saveAllBatched(MemberFixture.members(members, Collections.emptyList()), 100));
+    }
+}
@@ -0,0 +1,53 @@
+package study.datajpa.benchmark;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.DataJpaApplication;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 벤치마크용 애플리케이션 컨텍스트: 내장 H2 메모리 DB, 웹 서버/SQL 로그/p6spy 없이 기동
+ * HTTP 부하 테스트는 startServer: 임의 포트로 내장 톰캣 기동 (port 로 조회)
+ */
+public final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    //builder.properties() 는 기본값(application.yml 보다 우선순위가 낮음)이므로 커맨드 라인 인자로 전달한다.
+    //같은 key 의 인자가 여러 개면 콤마로 합쳐지므로 벤치마크에서 지정한 값으로 덮어쓴다.
+    public static ConfigurableApplicationContext start(String... properties) {
+        return run(WebApplicationType.NONE, properties);
+    }
+
+    public static ConfigurableApplicationContext startServer(String... properties) {
+        return run(WebApplicationType.SERVLET, Stream.concat(Stream.of("server.port=0"), Arrays.stream(properties))
+                .toArray(String[]::new));
+    }
+
+    public static int port(ConfigurableApplicationContext context) {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    private static ConfigurableApplicationContext run(WebApplicationType webApplicationType, String... properties) {
+        Map<String, String> args = new LinkedHashMap<>();
+        Stream.concat(Stream.of(
+                                "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                                "spring.jpa.properties.hibernate.generate_statistics=false",
+                                "decorator.datasource.enabled=false",
+                                "logging.level.root=warn",
+                                "logging.level.org.hibernate.SQL=warn"),
+                        Arrays.stream(properties))
+                .forEach(property -> args.put(property.substring(0, property.indexOf('=')), property));
+        return new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(webApplicationType)
+                .bannerMode(Banner.Mode.OFF)
+                .run(args.values().stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+}
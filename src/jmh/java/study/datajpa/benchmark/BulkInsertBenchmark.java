@@ -0,0 +1,67 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원 1,000,000 건 적재 시간
+ *  - saveAll: JpaRepository.saveAll, 한 트랜잭션의 영속성 컨텍스트에 전부 쌓임
+ *  - saveAllBatched: batchSize 마다 flush(JDBC batch) + clear
+ * jdbcBatchSize=1 은 JDBC batch 미적용 비교용 (hibernate.jdbc.batch_size 로 기동)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class BulkInsertBenchmark {
+
+    @Param({"1000000"})
+    private int members;
+
+    @Param({"100", "1"})
+    private int jdbcBatchSize;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate transaction;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("spring.jpa.properties.hibernate.jdbc.batch_size=" + jdbcBatchSize);
+        memberRepository = context.getBean(MemberRepository.class);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @Setup(Level.Iteration)
+    public void clean() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int saveAll() {
+        List<Member> list = new ArrayList<>(members);
+        MemberFixture.members(members, Collections.emptyList()).forEach(list::add);
+        return transaction.execute(status -> memberRepository.saveAll(list).size());
+    }
+
+    @Benchmark
+    public int saveAllBatched() {
+        return memberRepository.saveAllBatched(MemberFixture.members(members, Collections.emptyList()), 1000);
+    }
+}
@@ -0,0 +1,69 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.service.MemberBulkLookupService;
+import study.datajpa.service.MemberQueryService;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원 ids 개 조회
+ *  - single: id 마다 조회 (클라이언트가 /members/{id} 를 N 번 호출, batch 없이)
+ *  - bulk: GET /members?ids= 와 같은 방식, chunkSize 개씩 in 쿼리를 chunkThreads 개 스레드에서 병렬 조회
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkLookupBenchmark {
+
+    @Param({"100", "1000", "5000"})
+    private int ids;
+
+    @Param({"1", "4"})
+    private int chunkThreads;
+
+    private ConfigurableApplicationContext context;
+    private MemberQueryService memberQueryService;
+    private MemberBulkLookupService memberBulkLookupService;
+    private List<Long> idList;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("datajpa.lookup.chunk-threads=" + chunkThreads);
+        MemberFixture.load(context, 100000, 10);
+        memberQueryService = context.getBean(MemberQueryService.class);
+        memberBulkLookupService = context.getBean(MemberBulkLookupService.class);
+        idList = new ArrayList<>();
+        for (int i = 0; i < ids; i++) {
+            idList.add((long) ThreadLocalRandom.current().nextInt(100000) + 1);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int single() {
+        int length = 0;
+        for (Long id : idList) {
+            length += memberQueryService.findMembersById(List.of(id)).get(id).getUsername().length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public long bulk() throws IOException {
+        return memberBulkLookupService.write(idList, Writer.nullWriter());
+    }
+}
@@ -0,0 +1,86 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.lock.ClaimMode;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 작업 큐: 워커(스레드)가 회원 batch 명씩 락을 잡아서 처리(workMillis 동안 외부 호출 등 + 나이 변경) 후 커밋
+ *  - blocking: for update + limit, 모든 워커가 같은 앞쪽 row 를 기다림
+ *  - skipLocked: claimMembers(SKIP_LOCKED), 다른 워커가 가져간 row 를 건너뜀
+ * 워커 수: ./gradlew jmh -Pjmh.includes=ClaimBenchmark -Pjmh.threads=32 (1 ~ 32)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClaimBenchmark {
+
+    @Param({"10000"})
+    private int members;
+
+    @Param({"10"})
+    private int batch;
+
+    @Param({"0", "5"})
+    private int workMillis;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private EntityManager em;
+    private TransactionTemplate transaction;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(
+                "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+                "spring.datasource.hikari.maximum-pool-size=64");
+        MemberFixture.load(context, members, 0);
+        memberRepository = context.getBean(MemberRepository.class);
+        em = context.getBean(EntityManager.class);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int blocking() {
+        return transaction.execute(status -> process(em.createQuery("select m from Member m where m.age <= :maxAge order by m.id", Member.class)
+                .setParameter("maxAge", Integer.MAX_VALUE)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setMaxResults(batch)
+                .getResultList()));
+    }
+
+    @Benchmark
+    public int skipLocked() {
+        return transaction.execute(status -> process(memberRepository.claimMembers(Integer.MAX_VALUE, batch, ClaimMode.SKIP_LOCKED)));
+    }
+
+    //처리 후에도 조건(age <= MAX)에 남아 있으므로 계속 같은 row 를 두고 경쟁
+    private int process(List<Member> claimed) {
+        if (workMillis > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(workMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        claimed.forEach(member -> member.changeAge((member.getAge() + 1) % 100));
+        return claimed.size();
+    }
+}
@@ -0,0 +1,84 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP 조건부 조회: 같은 회원, 같은 회원 페이지를 다시 조회
+ *  - ok: 조건 헤더 없음 (200)
+ *  - notModified: 처음 응답의 ETag 로 If-None-Match (버전 컬럼만 조회, 본문 없이 304)
+ * 검사값(버전 컬럼)을 먼저 조회하고 같으면 본문 조회, 직렬화, 전송을 생략한다.
+ * 대신 200 은 조회가 하나 더: 회원은 조건 헤더가 있을 때 버전 컬럼, 페이지는 항상 버전 컬럼 페이지 (count 는 한번)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConditionalGetBenchmark {
+    private static final String MEMBER = "/members/5000";
+    private static final String PAGE = "/members?size=100&page=50&sort=username";
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private String memberEtag;
+    private String pageEtag;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        context = BenchmarkApplication.startServer("logging.level.study.datajpa.repository.metrics=error");
+        MemberFixture.load(context, 10000, 10);
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        baseUrl = "http://localhost:" + BenchmarkApplication.port(context);
+        memberEtag = send(MEMBER, null, 200).headers().firstValue("ETag").orElseThrow();
+        pageEtag = send(PAGE, null, 200).headers().firstValue("ETag").orElseThrow();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String memberOk() throws IOException, InterruptedException {
+        return send(MEMBER, null, 200).body();
+    }
+
+    @Benchmark
+    public String memberNotModified() throws IOException, InterruptedException {
+        return send(MEMBER, memberEtag, 304).body();
+    }
+
+    @Benchmark
+    public String pageOk() throws IOException, InterruptedException {
+        return send(PAGE, null, 200).body();
+    }
+
+    @Benchmark
+    public String pageNotModified() throws IOException, InterruptedException {
+        return send(PAGE, pageEtag, 304).body();
+    }
+
+    private HttpResponse<String> send(String path, String etag, int expected) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path));
+        if (etag != null) {
+            request.header("If-None-Match", etag);
+        }
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != expected) {
+            throw new IllegalStateException(path + ": " + response.statusCode());
+        }
+        return response;
+    }
+}
@@ -0,0 +1,79 @@
+package study.datajpa.benchmark;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.lock.OptimisticRetryExecutor;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 64 개 스레드가 소수의 회원(hotRows)의 나이를 동시에 수정
+ *  - pessimistic: findLockByUsername (select ... for update) -> 수정, 같은 row 수정은 락 대기로 직렬화
+ *  - optimistic: @Version 조회 -> 수정, 충돌하면 OptimisticRetryExecutor 로 재시도
+ * 재시도 횟수는 repository.optimistic.conflicts 지표로 확인 (TearDown 에서 출력)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class ContentionBenchmark {
+
+    @Param({"1", "16", "1024"})
+    private int hotRows;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private OptimisticRetryExecutor retryExecutor;
+    private TransactionTemplate transaction;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(
+                "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+                "spring.datasource.hikari.maximum-pool-size=64",
+                "datajpa.optimistic-retry.max-attempts=100",
+                "logging.level.org.hibernate.engine.jdbc.batch.internal.BatchingBatch=off");//충돌마다 남는 StaleStateException error 로그
+        MemberFixture.load(context, hotRows, 0);
+        memberRepository = context.getBean(MemberRepository.class);
+        retryExecutor = context.getBean(OptimisticRetryExecutor.class);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+        System.out.printf("%noptimistic conflicts: %.0f%n",
+                meterRegistry.counter("repository.optimistic.conflicts", "operation", "benchmark").count());
+        context.close();
+    }
+
+    @Benchmark
+    public int pessimistic() {
+        String username = hotUsername();
+        return transaction.execute(status -> increaseAge(memberRepository.findLockByUsername(username).get(0)));
+    }
+
+    @Benchmark
+    public int optimistic() {
+        String username = hotUsername();
+        return retryExecutor.execute("benchmark", () -> increaseAge(memberRepository.findByUsername(username).get(0)));
+    }
+
+    private String hotUsername() {
+        return MemberFixture.username(ThreadLocalRandom.current().nextInt(hotRows));
+    }
+
+    private int increaseAge(Member member) {
+        member.changeAge(member.getAge() + 1);
+        return member.getAge();
+    }
+}
@@ -0,0 +1,79 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP 부하 테스트: 클라이언트(스레드) 1,000 개가 동시에 GET /members/{id}, GET /members?page= 호출
+ * datajpa.web.execution-mode 별 처리량, 응답시간 분포(p99)
+ *  - platform: 톰캣 요청 스레드(기본 200개)에서 리포지토리 호출
+ *  - async: 요청 스레드는 바로 반환하고 커넥션 수만큼의 스레드에서 리포지토리 호출
+ *  - findMember(GET /members/{id}) 는 두 모드 모두 MicroBatcher 의 member-batch- 스레드에서 조회하므로 findMembers 만 모드에 따라 다르다.
+ * 톰캣 스레드, 커넥션 풀(기본 10개)보다 클라이언트가 많으므로 대기 시간이 응답시간에 포함된다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(1000)
+@Fork(1)
+public class ExecutionModeBenchmark {
+
+    @Param({"platform", "async"})
+    private String mode;
+
+    @Param({"10000"})
+    private int members;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        //허용 대기 시간을 커넥션 풀 대기 시간(30s)과 같게: 503 으로 빨리 실패한 요청이 처리량에 섞이지 않도록
+        context = BenchmarkApplication.startServer("datajpa.web.execution-mode=" + mode,
+                "datajpa.web.permit-timeout=30s",
+                "logging.level.study.datajpa.repository.metrics=error");
+        MemberFixture.load(context, members, 10);
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        baseUrl = "http://localhost:" + BenchmarkApplication.port(context);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String findMember() throws IOException, InterruptedException {
+        return get("/members/" + (ThreadLocalRandom.current().nextInt(members) + 1));
+    }
+
+    @Benchmark
+    public String findMembers() throws IOException, InterruptedException {
+        return get("/members?size=20&page=" + ThreadLocalRandom.current().nextInt(members / 20));
+    }
+
+    private String get(String path) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(path + ": " + response.statusCode());
+        }
+        return response.body();
+    }
+}
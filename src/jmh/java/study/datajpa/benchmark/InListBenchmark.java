@@ -0,0 +1,65 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * username in 조회: 리스트 크기별 in 절(패딩) vs 배열 파라미터
+ *  - inClause: findByNames, 바인드 변수 size 개 (2의 거듭제곱으로 패딩)
+ *  - arrayParameter: findByUsernames (threshold 를 넘는 크기), 바인드 변수 1개
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InListBenchmark {
+
+    @Param({"10000"})
+    private int members;
+
+    @Param({"10", "1000", "5000"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate readOnly;
+    private List<String> usernames;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("datajpa.query.array-parameter-threshold=0");
+        MemberFixture.load(context, members, 0);
+        memberRepository = context.getBean(MemberRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        usernames = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            usernames.add(MemberFixture.username(i * (members / size)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Member> inClause() {
+        return readOnly.execute(status -> memberRepository.findByNames(usernames));
+    }
+
+    @Benchmark
+    public List<Member> arrayParameter() {
+        return readOnly.execute(status -> memberRepository.findByUsernames(usernames));
+    }
+}
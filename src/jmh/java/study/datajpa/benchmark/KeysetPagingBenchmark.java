@@ -0,0 +1,84 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.keyset.KeysetSlice;
+import study.datajpa.repository.keyset.MemberKeyset;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /members 경로 비교: offset Page(findAll(pageable) + count) vs keyset(findMembersAfter)
+ * 같은 테이블(기본 2,000,020건)에서 1, 1,000, 100,000 번째 페이지(20건)의 지연시간
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.SampleTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeysetPagingBenchmark {
+    private static final int SIZE = 20;
+
+    @Param({"2000020"})
+    private int members;
+
+    @Param({"1", "1000", "100000"})
+    private int pageNumber;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate readOnly;
+    private PageRequest pageRequest;
+    private MemberKeyset keyset;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        MemberFixture.load(context, members, 0);
+        memberRepository = context.getBean(MemberRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        pageRequest = PageRequest.of(pageNumber - 1, SIZE, Sort.by("username", "id"));
+        keyset = readOnly.execute(status -> keysetBefore(pageNumber));
+    }
+
+    //pageNumber 페이지 직전 row 의 keyset; 클라이언트가 이전 페이지 응답으로 받았을 token
+    private MemberKeyset keysetBefore(int pageNumber) {
+        if (pageNumber == 1) {
+            return null;
+        }
+        Member last = context.getBean(EntityManager.class)
+                .createQuery("select m from Member m order by m.username, m.id", Member.class)
+                .setFirstResult((pageNumber - 1) * SIZE - 1)
+                .setMaxResults(1)
+                .getSingleResult();
+        return MemberKeyset.of(last);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<MemberDto> offsetPage() {
+        return readOnly.execute(status -> memberRepository.findAll(pageRequest)
+                .map(m -> MemberDto.builder().member(m).build()));
+    }
+
+    @Benchmark
+    public KeysetSlice<MemberDto> keyset() {
+        return readOnly.execute(status -> memberRepository.findMembersAfter(keyset, SIZE)
+                .map(m -> MemberDto.builder().member(m).build()));
+    }
+}
@@ -0,0 +1,69 @@
+package study.datajpa.benchmark;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 벤치마크 데이터: username 은 member0000000 형식(정렬 순서 = 생성 순서), age 는 0 ~ 99 반복
+ */
+public final class MemberFixture {
+    private static final int BATCH_SIZE = 1000;
+
+    private MemberFixture() {
+    }
+
+    public static String username(int index) {
+        return String.format("member%07d", index);
+    }
+
+    //teamCount 가 0 이면 팀 없는 회원; 팀의 members 컬렉션에 회원이 쌓이므로 대량 데이터는 팀 없이 만든다.
+    public static void load(ConfigurableApplicationContext context, int memberCount, int teamCount) {
+        MemberRepository memberRepository = context.getBean(MemberRepository.class);
+        TeamRepository teamRepository = context.getBean(TeamRepository.class);
+        new TransactionTemplate(context.getBean(PlatformTransactionManager.class))
+                .executeWithoutResult(status -> {
+                    List<Team> teams = new ArrayList<>();
+                    for (int i = 0; i < teamCount; i++) {
+                        teams.add(teamRepository.save(Team.builder().name("team" + i).build()));
+                    }
+                    memberRepository.saveAllBatched(members(memberCount, teams), BATCH_SIZE);
+                });
+    }
+
+    //회원을 미리 만들어 두지 않고 저장할 때마다 하나씩 생성
+    public static Iterable<Member> members(int memberCount, List<Team> teams) {
+        return () -> new Iterator<>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < memberCount;
+            }
+
+            @Override
+            public Member next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Team team = teams.isEmpty() ? null : teams.get(index % teams.size());
+                Member member = Member.builder()
+                        .username(username(index))
+                        .age(index % 100)
+                        .team(team)
+                        .build();
+                index++;
+                return member;
+            }
+        };
+    }
+}
@@ -0,0 +1,76 @@
+package study.datajpa.benchmark;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.batch.MicroBatcher;
+import study.datajpa.service.MemberQueryService;
+import study.datajpa.web.RequestExecutor;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 서로 다른 id 단건 조회: 스레드 64개가 임의의 회원을 조회
+ *  - direct: 조회마다 id 1개로 같은 in 쿼리 (batch 없이 MemberQueryService.findMembersById)
+ *  - batched: batchWindow 동안 모은 id 를 in 쿼리 한번으로 조회 (MicroBatcher)
+ * 종료 시 평균 batch 크기(= DB 왕복 감소 배수)를 출력한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class MicroBatchBenchmark {
+
+    @Param({"2ms"})
+    private String batchWindow;
+
+    private ConfigurableApplicationContext context;
+    private MemberQueryService memberQueryService;
+    private RequestExecutor requestExecutor;
+    private MicroBatcher<Long, Member> memberBatcher;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        //허용 대기 시간 초과(503)로 실패하지 않도록
+        context = BenchmarkApplication.start("datajpa.web.permit-timeout=30s",
+                "datajpa.lookup.batch-window=" + batchWindow);
+        MemberFixture.load(context, 100000, 10);
+        memberQueryService = context.getBean(MemberQueryService.class);
+        requestExecutor = context.getBean(RequestExecutor.class);
+        memberBatcher = context.getBean("memberBatcher", MicroBatcher.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DistributionSummary batchSizes = context.getBean(MeterRegistry.class)
+                .get("repository.micro.batch.size").tag("name", "member").summary();
+        if (batchSizes.count() > 0) {
+            System.out.printf("%nbatches=%d, mean batch size=%.1f%n", batchSizes.count(), batchSizes.mean());
+        }
+        context.close();
+    }
+
+    @Benchmark
+    public String direct() {
+        long id = randomId();
+        return requestExecutor.submit(() -> memberQueryService.findMembersById(List.of(id)).get(id).getUsername()).join();
+    }
+
+    @Benchmark
+    public String batched() {
+        Member member = memberBatcher.load(randomId()).join();
+        return member.getUsername();
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextInt(100000) + 1;
+    }
+}
@@ -0,0 +1,84 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.count.TotalCountStrategy;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Page(추가 count 쿼리) vs Slice(size + 1 조회) vs List(paging 만)
+ * GET /members: 엔티티 Page 를 MemberDto 로 변환(팀 지연 로딩) vs MemberDto 직접 조회(팀 조인)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PagingBenchmark {
+
+    @Param({"100000"})
+    private int members;
+
+    @Param({"0", "100"})
+    private int page;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate readOnly;
+    private PageRequest pageRequest;
+    private TotalCountStrategy countStrategy;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        MemberFixture.load(context, members, 10);
+        memberRepository = context.getBean(MemberRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        pageRequest = PageRequest.of(page, 20, Sort.by("username"));
+        countStrategy = context.getBean(TotalCountStrategy.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Member> page() {
+        return readOnly.execute(status -> memberRepository.findPageByAge(10, pageRequest));
+    }
+
+    @Benchmark
+    public Slice<Member> slice() {
+        return readOnly.execute(status -> memberRepository.findSliceByAge(10, pageRequest));
+    }
+
+    @Benchmark
+    public List<Member> list() {
+        return readOnly.execute(status -> memberRepository.findListByAge(10, pageRequest));
+    }
+
+    @Benchmark
+    public Page<MemberDto> entityPageToDto() {
+        return readOnly.execute(status -> memberRepository.findAll(pageRequest, countStrategy)
+                .map(m -> MemberDto.builder().member(m).build()));
+    }
+
+    @Benchmark
+    public Page<MemberDto> dtoPage() {
+        return readOnly.execute(status -> memberRepository.findMemberDtos(null, pageRequest, countStrategy));
+    }
+}
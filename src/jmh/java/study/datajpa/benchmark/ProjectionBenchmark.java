@@ -0,0 +1,109 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.projection.NestedClosedProjections;
+import study.datajpa.repository.projection.UsernameAndAge;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 인터페이스 프로젝션: 스프링 데이터 기본(JDK 동적 프록시 + Map) vs 생성 클래스(tuple slot)
+ *  - find*: 같은 username 회원 rowsPerName 건 조회 + getter 호출
+ *  - read*: 이미 조회한 결과의 getter 호출 비용만
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectionBenchmark {
+    private static final String USERNAME = "projection";
+
+    @Param({"100"})
+    private int rowsPerName;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate readOnly;
+    private List<UsernameAndAge> proxies;
+    private List<UsernameAndAge> generated;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        MemberFixture.load(context, 10_000, 10);
+        memberRepository = context.getBean(MemberRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        List<Member> sameName = new ArrayList<>();
+        MemberFixture.members(rowsPerName, List.of()).forEach(member -> {
+            member.changeUsername(USERNAME);
+            sameName.add(member);
+        });
+        memberRepository.saveAll(sameName);
+        proxies = loadProxies();
+        generated = loadGenerated();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long findProxy() {
+        return sumAges(loadProxies());
+    }
+
+    @Benchmark
+    public long findGenerated() {
+        return sumAges(loadGenerated());
+    }
+
+    @Benchmark
+    public void findNestedProxy(Blackhole blackhole) {
+        readOnly.executeWithoutResult(status -> memberRepository.findProjectionsByUsername(USERNAME, NestedClosedProjections.class)
+                .forEach(projection -> blackhole.consume(projection.getTeam())));
+    }
+
+    @Benchmark
+    public void findNestedGenerated(Blackhole blackhole) {
+        readOnly.executeWithoutResult(status -> memberRepository.findTupleProjectionsByUsername(USERNAME, NestedClosedProjections.class)
+                .forEach(projection -> blackhole.consume(projection.getTeam())));
+    }
+
+    @Benchmark
+    public long readProxy() {
+        return sumAges(proxies);
+    }
+
+    @Benchmark
+    public long readGenerated() {
+        return sumAges(generated);
+    }
+
+    private List<UsernameAndAge> loadProxies() {
+        return readOnly.execute(status -> memberRepository.findProjectionsByUsername(USERNAME, UsernameAndAge.class));
+    }
+
+    private List<UsernameAndAge> loadGenerated() {
+        return readOnly.execute(status -> memberRepository.findTupleProjectionsByUsername(USERNAME, UsernameAndAge.class));
+    }
+
+    private long sumAges(List<UsernameAndAge> projections) {
+        long sum = 0;
+        for (UsernameAndAge projection : projections) {
+            sum += projection.getAge() + projection.getUsername().length();
+        }
+        return sum;
+    }
+}
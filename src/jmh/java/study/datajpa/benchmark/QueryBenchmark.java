@@ -0,0 +1,94 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.projection.UsernameAndAge;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 조회 방식별 비용 비교
+ *  - 단건 조건 조회: 메서드 이름 쿼리, @Query JPQL, 인터페이스 프로젝션, 네이티브 쿼리
+ *  - 전체 조회(members 건): DTO 생성자 프로젝션, 엔티티 그래프, fetch join
+ * 트랜잭션 안에서 팀 이름까지 읽어 실제 사용 패턴과 같게 측정한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryBenchmark {
+
+    @Param({"1000"})
+    private int members;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate readOnly;
+    private String username;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        MemberFixture.load(context, members, 10);
+        memberRepository = context.getBean(MemberRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        username = MemberFixture.username(members / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Member> derivedQuery() {
+        return readOnly.execute(status -> memberRepository.findByUsername(username));
+    }
+
+    @Benchmark
+    public List<Member> jpqlQuery() {
+        return readOnly.execute(status -> memberRepository.findUser(username, (members / 2) % 100));
+    }
+
+    @Benchmark
+    public List<UsernameAndAge> interfaceProjection() {
+        return readOnly.execute(status -> memberRepository.findProjectionsByUsername(username, UsernameAndAge.class));
+    }
+
+    @Benchmark
+    public Member nativeQuery() {
+        return readOnly.execute(status -> memberRepository.findByNativeQuery(username));
+    }
+
+    @Benchmark
+    public List<MemberDto> dtoProjection() {
+        return readOnly.execute(status -> memberRepository.findMemberDto());
+    }
+
+    @Benchmark
+    public int entityGraph() {
+        return readOnly.execute(status -> touchTeams(memberRepository.findMembersEntityGraph()));
+    }
+
+    @Benchmark
+    public int fetchJoin() {
+        return readOnly.execute(status -> touchTeams(memberRepository.findMembersFetchJoin()));
+    }
+
+    private int touchTeams(List<Member> result) {
+        int length = 0;
+        for (Member member : result) {
+            length += member.getTeam().getName().length();
+        }
+        return length;
+    }
+}
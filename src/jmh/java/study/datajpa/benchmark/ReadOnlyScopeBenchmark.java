@@ -0,0 +1,93 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.support.ReadOnlyScopeInterceptor;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 읽기/쓰기 트랜잭션에서 회원 10,000 건 조회 시 영속성 컨텍스트가 유지하는 heap: 기본 vs @ReadOnlyScope
+ *  - retainedBytes: 조회 직후 (트랜잭션 종료 전) GC 후 heap 사용량 증가분; 엔티티 + 변경 감지용 스냅샷
+ *  - gc.alloc.rate.norm: 조회 1회 할당량 (gc profiler)
+ *  - 커밋 시간에는 flush(dirty checking) 비용이 포함된다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ReadOnlyScopeBenchmark {
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    @Param({"10000"})
+    private int members;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transaction;
+    private Supplier<List<Member>> loader;
+    private Supplier<List<Member>> readOnlyLoader;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Heap {
+        public long retainedBytes;
+    }
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        MemberFixture.load(context, members, 0);
+        MemberRepository memberRepository = context.getBean(MemberRepository.class);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        loader = memberRepository::findAll;
+
+        //@ReadOnlyScope 가 붙은 서비스 메서드와 같은 프록시
+        ProxyFactory proxyFactory = new ProxyFactory(loader);
+        proxyFactory.addInterface(Supplier.class);
+        proxyFactory.addAdvice(context.getBean(ReadOnlyScopeInterceptor.class));
+        readOnlyLoader = (Supplier<List<Member>>) proxyFactory.getProxy();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void readWrite(Heap heap, Blackhole blackhole) {
+        load(loader, heap, blackhole);
+    }
+
+    @Benchmark
+    public void readOnlyScope(Heap heap, Blackhole blackhole) {
+        load(readOnlyLoader, heap, blackhole);
+    }
+
+    private void load(Supplier<List<Member>> supplier, Heap heap, Blackhole blackhole) {
+        transaction.executeWithoutResult(status -> {
+            long before = usedHeapAfterGc();
+            List<Member> result = supplier.get();
+            heap.retainedBytes = usedHeapAfterGc() - before;
+            blackhole.consume(result);
+        });
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        System.gc();
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,82 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.count.ExactCountStrategy;
+import study.datajpa.repository.spec.MemberSearch;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 검색 조건 조합(6가지)을 번갈아 실행
+ *  - specification: findAll(Specification, Pageable), 호출마다 Criteria 트리 생성, JPQL 렌더링
+ *  - compiled: search(MemberSearch, ...), 조건 조합별로 만들어 둔 JPQL 에 파라미터만 바인딩
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    @Param({"1000"})
+    private int members;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private ExactCountStrategy exactCountStrategy;
+    private TransactionTemplate readOnly;
+    private List<MemberSearch> searches;
+    private PageRequest pageRequest = PageRequest.of(0, 20);
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        MemberFixture.load(context, members, 10);
+        memberRepository = context.getBean(MemberRepository.class);
+        exactCountStrategy = context.getBean(ExactCountStrategy.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        String username = MemberFixture.username(members / 2);
+        searches = Arrays.asList(
+                MemberSearch.builder().username(username).build(),
+                MemberSearch.builder().teamName("team1").build(),
+                MemberSearch.builder().username(username).teamName("team0").build(),
+                MemberSearch.builder().ageGoe(10).ageLoe(20).build(),
+                MemberSearch.builder().teamName("team2").ageGoe(50).build(),
+                MemberSearch.builder().build()
+        );
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Member> specification() {
+        MemberSearch search = nextSearch();
+        return readOnly.execute(status -> memberRepository.findAll(search.toSpecification(), pageRequest));
+    }
+
+    @Benchmark
+    public Page<Member> compiled() {
+        MemberSearch search = nextSearch();
+        return readOnly.execute(status -> memberRepository.search(search, pageRequest, exactCountStrategy));
+    }
+
+    private MemberSearch nextSearch() {
+        next = (next + 1) % searches.size();
+        return searches.get(next);
+    }
+}
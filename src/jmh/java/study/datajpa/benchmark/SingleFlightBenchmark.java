@@ -0,0 +1,72 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.dto.MemberUsernameDto;
+import study.datajpa.repository.cache.SingleFlight;
+import study.datajpa.service.MemberQueryService;
+import study.datajpa.web.RequestExecutor;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 인기 회원 조회: 스레드 64개가 hotIds 개 id 중 하나를 GET /members/{id} 와 같은 방식으로 조회
+ *  - direct: 요청마다 회원 조회 (MemberQueryService.findMembersById, batch 없이)
+ *  - singleFlight: 같은 id 동시 조회는 한번, 결과는 datajpa.lookup.ttl 동안 재사용
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class SingleFlightBenchmark {
+
+    @Param({"1", "1000"})
+    private int hotIds;
+
+    private ConfigurableApplicationContext context;
+    private MemberQueryService memberQueryService;
+    private RequestExecutor requestExecutor;
+    private SingleFlight<Long, MemberUsernameDto> memberUsernameLookup;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        //허용 대기 시간 초과(503)로 실패하지 않도록
+        context = BenchmarkApplication.start("datajpa.web.permit-timeout=30s");
+        MemberFixture.load(context, 10000, 10);
+        memberQueryService = context.getBean(MemberQueryService.class);
+        requestExecutor = context.getBean(RequestExecutor.class);
+        memberUsernameLookup = context.getBean("memberUsernameLookup", SingleFlight.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String direct() {
+        long id = hotId();
+        return requestExecutor.submit(() -> findUsername(id)).join();
+    }
+
+    @Benchmark
+    public String singleFlight() {
+        return memberUsernameLookup.get(hotId(), key -> requestExecutor.submit(() -> MemberUsernameDto.builder()
+                .member(memberQueryService.findMembersById(List.of(key)).get(key))
+                .build())).join().getUsername();
+    }
+
+    private String findUsername(Long id) {
+        return memberQueryService.findMembersById(List.of(id)).get(id).getUsername();
+    }
+
+    private long hotId() {
+        return ThreadLocalRandom.current().nextInt(hotIds) + 1;
+    }
+}
@@ -10,7 +10,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 //@EnableJpaRepositories(basePackages = "jpabook.jpashop.repository")//스프링 부트 사용시 @SpringBootApplication 위치를 지정(해당 패키지와 하위 패키지 인식)
-@EnableJpaAuditing//Auditing; createdDate, modifiedDate, createdBy, modifiedBy..//(modifyOnCreate = false) => update Null 등록
+@EnableJpaAuditing(dateTimeProviderRef = "auditStampProvider")//Auditing; createdDate, modifiedDate, createdBy, modifiedBy..//(modifyOnCreate = false) => update Null 등록
 @SpringBootApplication
 public class DataJpaApplication {
 
@@ -21,6 +21,7 @@ public class DataJpaApplication {
 	@Bean
 	public AuditorAware<String> auditorProvider() {
 		//return () -> getSession().getId()..
+		//AuditStampProvider 가 트랜잭션마다 한번만 호출
 		return () -> Optional.of(UUID.randomUUID().toString());
 	}
 
@@ -0,0 +1,22 @@
+package study.datajpa.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.AuditorAware;
+import study.datajpa.entity.audit.AuditStampProvider;
+
+/**
+ * Auditing(BaseTimeEntity, BaseEntity)
+ *  datajpa.auditing.enabled: false 면 생성/수정 일시, 작업자를 채우지 않음
+ *  일시, 작업자(auditorProvider)는 트랜잭션마다 한번 만든다.
+ */
+@Configuration
+public class AuditingConfig {
+
+    @Bean
+    public AuditStampProvider auditStampProvider(AuditorAware<String> auditorProvider,
+                                                 @Value("${datajpa.auditing.enabled:true}") boolean enabled) {
+        return new AuditStampProvider(auditorProvider, enabled);
+    }
+}
@@ -0,0 +1,69 @@
+package study.datajpa.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import study.datajpa.web.ConnectionPermits;
+import study.datajpa.web.RequestExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 컨트롤러 실행 방식
+ *  datajpa.web.execution-mode: platform(기본, 요청 스레드에서 허용 없이) | async | virtual
+ *  datajpa.web.connection-permits: 다른 스레드에서 동시에 실행하는 DB 작업 수, 기본은 커넥션 풀 크기
+ *  datajpa.web.permit-timeout: 허용 대기 시간, 초과하면 503; 기본은 커넥션 풀 대기 시간(hikari connection-timeout)과 같다.
+ *  datajpa.web.queue-capacity: async 실행 대기열 크기, 초과하면 503
+ */
+@Configuration
+public class ExecutionConfig {
+
+    @Bean
+    public ConnectionPermits connectionPermits(@Value("${datajpa.web.connection-permits:${spring.datasource.hikari.maximum-pool-size:10}}") int permits,
+                                               @Value("${datajpa.web.permit-timeout:${spring.datasource.hikari.connection-timeout:30000}}") Duration timeout) {
+        return new ConnectionPermits(permits, timeout);
+    }
+
+    //RequestExecutor 타입 주입은 이 빈 (LookupConfig.memberBatchExecutor 는 @Qualifier 로)
+    @Bean
+    @Primary
+    public RequestExecutor requestExecutor(ConnectionPermits connectionPermits,
+                                           @Value("${datajpa.web.execution-mode:platform}") String mode,
+                                           @Value("${datajpa.web.connection-permits:${spring.datasource.hikari.maximum-pool-size:10}}") int permits,
+                                           @Value("${datajpa.web.queue-capacity:10000}") int queueCapacity) {
+        ExecutorService executor;
+        switch (mode) {
+            case "platform":
+                executor = null;
+                break;
+            case "async":
+                //permits 보다 많은 스레드는 허용을 기다리기만 하므로 스레드 수 = permits
+                executor = new ThreadPoolExecutor(permits, permits, 0, TimeUnit.MILLISECONDS,
+                        new LinkedBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("request-"));
+                break;
+            case "virtual":
+                executor = virtualThreadPerTaskExecutor();
+                break;
+            default:
+                throw new IllegalArgumentException("unknown datajpa.web.execution-mode: " + mode);
+        }
+        return new RequestExecutor(connectionPermits, executor);
+    }
+
+    //소스 레벨이 Java 11 이므로 리플렉션으로 호출
+    private ExecutorService virtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("datajpa.web.execution-mode=virtual requires Java 21 or later (running "
+                    + Runtime.version() + ")", e);
+        }
+    }
+}
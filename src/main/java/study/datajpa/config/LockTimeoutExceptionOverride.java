@@ -0,0 +1,18 @@
+package study.datajpa.config;
+
+import com.zaxxer.hikari.SQLExceptionOverride;
+
+import java.sql.SQLException;
+
+/**
+ * Hikari 는 SQLTimeoutException 이 발생한 커넥션을 폐기한다.
+ * H2 의 락 타임아웃(50200)도 SQLTimeoutException 이지만 문장 단위 오류라 커넥션은 계속 쓸 수 있으므로 폐기하지 않는다. (RowClaimer)
+ */
+public class LockTimeoutExceptionOverride implements SQLExceptionOverride {
+    private static final int H2_LOCK_TIMEOUT = 50200;
+
+    @java.lang.Override
+    public Override adjudicate(SQLException e) {
+        return e.getErrorCode() == H2_LOCK_TIMEOUT ? Override.DO_NOT_EVICT : Override.CONTINUE_EVICT;
+    }
+}
@@ -0,0 +1,91 @@
+package study.datajpa.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import study.datajpa.dto.MemberUsernameDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.batch.MicroBatcher;
+import study.datajpa.repository.cache.SingleFlight;
+import study.datajpa.repository.cache.SingleFlightInvalidator;
+import study.datajpa.repository.projection.MemberVersion;
+import study.datajpa.service.MemberQueryService;
+import study.datajpa.web.ConnectionPermits;
+import study.datajpa.web.RequestExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 단건 조회 합치기: GET /members/{id}, /members/domain/{id}
+ *  SingleFlight: 같은 id 동시 조회는 한번 (GET /members/{id} 본문, 조건부 조회 검사값)
+ *      datajpa.lookup.ttl: 조회 결과 재사용 시간
+ *      datajpa.lookup.max-size: 재사용할 결과 최대 개수
+ *      datajpa.lookup.stripes: 결과 저장소를 나누는 수 (stripe 별로 락)
+ *  MicroBatcher: 서로 다른 id 조회를 모아서 in 쿼리 한번
+ *      datajpa.lookup.batch-window: 첫 조회 후 모으는 시간
+ *      datajpa.lookup.batch-size: 이 개수가 모이면 바로 조회
+ *      datajpa.lookup.batch-threads: batch 조회 스레드 수, 기본은 DB 작업 허용 수 (대기열 batch-queue-capacity 를 넘으면 503)
+ */
+@Configuration
+public class LookupConfig {
+
+    @Bean
+    public SingleFlight<Long, MemberUsernameDto> memberUsernameLookup(MeterRegistry meterRegistry,
+                                                           @Value("${datajpa.lookup.ttl:100ms}") Duration ttl,
+                                                           @Value("${datajpa.lookup.max-size:10000}") int maxSize,
+                                                           @Value("${datajpa.lookup.stripes:16}") int stripes) {
+        return new SingleFlight<>("member.username", Member.class, ttl, maxSize, stripes, meterRegistry);
+    }
+
+    @Bean
+    public SingleFlight<Long, MemberVersion> memberVersionLookup(MeterRegistry meterRegistry,
+                                                                 @Value("${datajpa.lookup.ttl:100ms}") Duration ttl,
+                                                                 @Value("${datajpa.lookup.max-size:10000}") int maxSize,
+                                                                 @Value("${datajpa.lookup.stripes:16}") int stripes) {
+        return new SingleFlight<>("member.version", Member.class, ttl, maxSize, stripes, meterRegistry);
+    }
+
+    //batch 조회 전용 스레드: window 타이머 스레드에서 조회하면 다음 window 가 이전 조회를 기다리므로
+    //datajpa.web.execution-mode 와 관계없이 항상 다른 스레드에서 실행한다.
+    @Bean
+    public RequestExecutor memberBatchExecutor(ConnectionPermits connectionPermits,
+                                               @Value("${datajpa.lookup.batch-threads:${datajpa.web.connection-permits:${spring.datasource.hikari.maximum-pool-size:10}}}") int threads,
+                                               @Value("${datajpa.lookup.batch-queue-capacity:1000}") int queueCapacity) {
+        return new RequestExecutor(connectionPermits, new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("member-batch-")));
+    }
+
+    //조회는 memberBatchExecutor 로 실행 (DB 작업 허용 수)
+    @Bean
+    public MicroBatcher<Long, Member> memberBatcher(MemberQueryService memberQueryService,
+                                                    @Qualifier("memberBatchExecutor") RequestExecutor memberBatchExecutor,
+                                                    MeterRegistry meterRegistry,
+                                                    @Value("${datajpa.lookup.batch-window:2ms}") Duration window,
+                                                    @Value("${datajpa.lookup.batch-size:100}") int batchSize) {
+        return new MicroBatcher<>("member", window, batchSize,
+                ids -> memberBatchExecutor.submit(() -> memberQueryService.findMembersById(ids)), meterRegistry);
+    }
+
+    //조건부 조회 검사값(버전 컬럼)도 같은 방식으로 모아서 조회
+    @Bean
+    public MicroBatcher<Long, MemberVersion> memberVersionBatcher(MemberQueryService memberQueryService,
+                                                                  @Qualifier("memberBatchExecutor") RequestExecutor memberBatchExecutor,
+                                                                  MeterRegistry meterRegistry,
+                                                                  @Value("${datajpa.lookup.batch-window:2ms}") Duration window,
+                                                                  @Value("${datajpa.lookup.batch-size:100}") int batchSize) {
+        return new MicroBatcher<>("member.version", window, batchSize,
+                ids -> memberBatchExecutor.submit(() -> memberQueryService.findMemberVersionsById(ids)), meterRegistry);
+    }
+
+    @Bean
+    public SingleFlightInvalidator singleFlightInvalidator(ObjectProvider<SingleFlight<?, ?>> singleFlights) {
+        return new SingleFlightInvalidator(singleFlights);
+    }
+}
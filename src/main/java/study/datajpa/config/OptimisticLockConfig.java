@@ -0,0 +1,37 @@
+package study.datajpa.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import study.datajpa.repository.lock.OptimisticRetryExecutor;
+import study.datajpa.repository.metrics.LockWaitMetricsInterceptor;
+
+import java.time.Duration;
+
+/**
+ * 동시 수정 제어
+ *  낙관적 락(@Version) 충돌 재시도
+ *      datajpa.optimistic-retry.max-attempts: 최대 시도 횟수 (첫 실행 포함)
+ *      datajpa.optimistic-retry.initial-backoff, max-backoff, multiplier: 재시도 대기 시간 (지수 증가 + 랜덤)
+ *  비관적 락(@Lock) 대기 시간 지표
+ */
+@Configuration
+public class OptimisticLockConfig {
+
+    @Bean
+    public OptimisticRetryExecutor optimisticRetryExecutor(PlatformTransactionManager transactionManager,
+                                                           MeterRegistry meterRegistry,
+                                                           @Value("${datajpa.optimistic-retry.max-attempts:5}") int maxAttempts,
+                                                           @Value("${datajpa.optimistic-retry.initial-backoff:5ms}") Duration initialBackoff,
+                                                           @Value("${datajpa.optimistic-retry.max-backoff:100ms}") Duration maxBackoff,
+                                                           @Value("${datajpa.optimistic-retry.multiplier:2}") double multiplier) {
+        return new OptimisticRetryExecutor(transactionManager, meterRegistry, maxAttempts, initialBackoff, maxBackoff, multiplier);
+    }
+
+    @Bean
+    public LockWaitMetricsInterceptor lockWaitMetricsInterceptor(MeterRegistry meterRegistry) {
+        return new LockWaitMetricsInterceptor(meterRegistry);
+    }
+}
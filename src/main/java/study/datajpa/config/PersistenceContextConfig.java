@@ -0,0 +1,48 @@
+package study.datajpa.config;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.ClassFilter;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import study.datajpa.repository.support.AffectedEntityEvictor;
+import study.datajpa.repository.support.ReadOnlyScope;
+import study.datajpa.repository.support.ReadOnlyScopeInterceptor;
+
+import javax.persistence.EntityManager;
+
+/**
+ * 영속성 컨텍스트 사용 범위
+ *  {@link study.datajpa.repository.support.EvictAffected}: clearAutomatically 대신 대상 엔티티만 제거
+ *  {@link ReadOnlyScope}: 메서드 실행 동안 읽기 전용 로딩 + FlushMode.MANUAL
+ */
+@Configuration
+public class PersistenceContextConfig {
+
+    @Bean
+    public AffectedEntityEvictor affectedEntityEvictor(EntityManager em) {
+        return new AffectedEntityEvictor(em);
+    }
+
+    @Bean
+    public ReadOnlyScopeInterceptor readOnlyScopeInterceptor(EntityManager em, PlatformTransactionManager transactionManager) {
+        return new ReadOnlyScopeInterceptor(em, transactionManager);
+    }
+
+    //리포지토리 프록시는 RepositoryInterceptorFactory 로 적용되므로 제외
+    //Advisor 는 다른 빈보다 먼저 생성되므로 인터셉터(EntityManager, 트랜잭션 매니저)는 호출 시점에 가져온다.
+    @Bean
+    public static Advisor readOnlyScopeAdvisor(ObjectProvider<ReadOnlyScopeInterceptor> interceptor) {
+        ComposablePointcut pointcut = new ComposablePointcut(new AnnotationMatchingPointcut(ReadOnlyScope.class, true))
+                .union(AnnotationMatchingPointcut.forMethodAnnotation(ReadOnlyScope.class))
+                .intersection((ClassFilter) clazz -> !Repository.class.isAssignableFrom(clazz));
+        MethodInterceptor advice = invocation -> interceptor.getObject().invoke(invocation);
+        return new DefaultPointcutAdvisor(pointcut, advice);
+    }
+}
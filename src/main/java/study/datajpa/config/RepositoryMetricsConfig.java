@@ -0,0 +1,40 @@
+package study.datajpa.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.datajpa.repository.metrics.QueryPlanCacheMetrics;
+import study.datajpa.repository.metrics.RepositoryMetricsInterceptor;
+import study.datajpa.repository.metrics.SqlMetricsListener;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+
+/**
+ * 리포지토리 메서드별 SQL 지표
+ *  datajpa.repository.metrics.slow-threshold: 이 시간을 넘는 호출은 warn 로그
+ *  datajpa.repository.metrics.statement-threshold: 한 호출에서 이 수를 넘는 SQL 이 실행되면 warn 로그
+ * Hibernate 쿼리 플랜 캐시 크기, hit 비율
+ */
+@Configuration
+public class RepositoryMetricsConfig {
+
+    @Bean
+    public SqlMetricsListener sqlMetricsListener() {
+        return new SqlMetricsListener();
+    }
+
+    @Bean
+    public RepositoryMetricsInterceptor repositoryMetricsInterceptor(MeterRegistry meterRegistry,
+                                                                     @Value("${datajpa.repository.metrics.slow-threshold:500ms}") Duration slowThreshold,
+                                                                     @Value("${datajpa.repository.metrics.statement-threshold:10}") long statementThreshold) {
+        return new RepositoryMetricsInterceptor(meterRegistry, slowThreshold, statementThreshold);
+    }
+
+    @Bean
+    public QueryPlanCacheMetrics queryPlanCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        return new QueryPlanCacheMetrics(entityManagerFactory.unwrap(SessionFactory.class));
+    }
+}
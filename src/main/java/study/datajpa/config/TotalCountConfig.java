@@ -0,0 +1,75 @@
+package study.datajpa.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import study.datajpa.repository.count.*;
+import study.datajpa.repository.support.RepositoryInterceptorFactory;
+import study.datajpa.repository.support.RepositoryInterceptorRegistrar;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+
+/**
+ * Page totalCount 전략 설정
+ *  datajpa.paging.count-strategy: exact(기본) | cached | estimated
+ *  datajpa.paging.count-cache-ttl: cached 전략의 캐시 유지 시간
+ *  datajpa.paging.count-cache-max-size: cached 전략의 최대 캐시 항목 수 (count 쿼리 + 파라미터 조합)
+ */
+@Configuration
+public class TotalCountConfig {
+
+    //BeanPostProcessor 는 static 으로 등록해야 다른 빈보다 먼저 생성된다.
+    @Bean
+    public static RepositoryInterceptorRegistrar repositoryInterceptorRegistrar(ObjectProvider<RepositoryInterceptorFactory> interceptorFactories) {
+        return new RepositoryInterceptorRegistrar(interceptorFactories);
+    }
+
+    @Bean
+    public ExactCountStrategy exactCountStrategy() {
+        return new ExactCountStrategy();
+    }
+
+    @Bean
+    public CachedCountStrategy cachedCountStrategy(@Value("${datajpa.paging.count-cache-ttl:30s}") Duration ttl,
+                                                   @Value("${datajpa.paging.count-cache-max-size:10000}") int maxSize) {
+        return new CachedCountStrategy(ttl, maxSize);
+    }
+
+    @Bean
+    public EstimatedCountStrategy estimatedCountStrategy(EntityManager em) {
+        return new EstimatedCountStrategy(em);
+    }
+
+    @Bean
+    public CountCacheInvalidator countCacheInvalidator(CachedCountStrategy cachedCountStrategy) {
+        return new CountCacheInvalidator(cachedCountStrategy);
+    }
+
+    //주입 지점에서 타입만 지정하면 설정된 전략이 주입된다.
+    //구현 타입으로 주입받는 곳과 겹치지 않도록 선택된 전략에 위임만 한다.
+    @Bean
+    @Primary
+    public TotalCountStrategy pagingCountStrategy(@Value("${datajpa.paging.count-strategy:exact}") String strategy,
+                                                  ExactCountStrategy exactCountStrategy,
+                                                  CachedCountStrategy cachedCountStrategy,
+                                                  EstimatedCountStrategy estimatedCountStrategy) {
+        TotalCountStrategy selected;
+        switch (strategy) {
+            case "exact":
+                selected = exactCountStrategy;
+                break;
+            case "cached":
+                selected = cachedCountStrategy;
+                break;
+            case "estimated":
+                selected = estimatedCountStrategy;
+                break;
+            default:
+                throw new IllegalArgumentException("unknown datajpa.paging.count-strategy: " + strategy);
+        }
+        return selected::count;
+    }
+}
@@ -6,49 +6,187 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.bind.annotation.*;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberUsernameDto;
 import study.datajpa.entity.Member;
 import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.batch.MicroBatcher;
+import study.datajpa.repository.cache.SingleFlight;
+import study.datajpa.repository.keyset.KeysetSlice;
+import study.datajpa.repository.keyset.MemberKeyset;
+import study.datajpa.repository.projection.MemberDtoVersion;
+import study.datajpa.repository.projection.MemberVersion;
+import study.datajpa.repository.support.ReadOnlyScope;
+import study.datajpa.service.MemberExportFormat;
+import study.datajpa.service.MemberBulkLookupService;
+import study.datajpa.service.MemberExportService;
+import study.datajpa.service.MemberQueryService;
+import study.datajpa.web.ConnectionPermitTimeoutException;
+import study.datajpa.web.InvalidRequestException;
+import study.datajpa.web.MemberIdConverter;
+import study.datajpa.web.RequestExecutor;
+import study.datajpa.web.ResourceVersion;
 
 import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.beans.PropertyEditorSupport;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
+    private static final int MAX_KEYSET_SIZE = 2000;
+
     private final MemberRepository memberRepository;
+    private final MemberQueryService memberQueryService;
+    private final MemberExportService memberExportService;
+    private final MemberBulkLookupService memberBulkLookupService;
+    private final RequestExecutor requestExecutor;//datajpa.web.execution-mode
+    private final SingleFlight<Long, MemberUsernameDto> memberUsernameLookup;//같은 id 동시 조회는 쿼리 한번
+    private final MicroBatcher<Long, Member> memberBatcher;//다른 id 조회는 모아서 in 쿼리 한번
+    private final SingleFlight<Long, MemberVersion> memberVersionLookup;//조건부 조회 검사값도 같은 방식
+    private final MicroBatcher<Long, MemberVersion> memberVersionBatcher;
 
+    //ETag, Last-Modified 는 회원의 버전, 수정 일시: If-None-Match, If-Modified-Since 가 있으면 버전 컬럼만 먼저 조회해서
+    //같으면 본문 조회 없이 304, 다르면 본문을 조회해서 200 (조건 헤더가 없으면 바로 본문 조회)
     @GetMapping("/members/{id}")
-    public String findMember(@PathVariable("id") Long id) {
-        return memberRepository.findById(id)
-                .orElseGet(() -> Member.builder()
-                        .username("not exists user")
-                        .build()
-                )
-                .getUsername();
+    public CompletableFuture<ResponseEntity<String>> findMember(@PathVariable("id") Long id, HttpServletRequest request) {
+        if (!ResourceVersion.isConditional(request)) {
+            return findMemberUsername(id);
+        }
+        return memberVersionLookup.get(id, memberVersionBatcher::load)
+                .thenCompose(version -> {
+                    if (version != null) {
+                        ResourceVersion resourceVersion = ResourceVersion.of(version);
+                        if (resourceVersion.matches(request)) {
+                            return CompletableFuture.completedFuture(resourceVersion.notModified());
+                        }
+                    }
+                    return findMemberUsername(id);
+                });
+    }
+
+    private CompletableFuture<ResponseEntity<String>> findMemberUsername(Long id) {
+        return memberUsernameLookup.get(id, key -> memberBatcher.load(key)
+                        .thenApply(member -> MemberUsernameDto.builder()
+                                .member(Optional.ofNullable(member)
+                                        .orElseGet(() -> Member.builder()
+                                                .username("not exists user")
+                                                .build()
+                                        ))
+                                .build()))
+                .thenApply(member -> member.getVersion() == null
+                        ? ResponseEntity.ok(member.getUsername())
+                        : ResourceVersion.of(member).ok(member.getUsername()));
     }
 
+    //@PathVariable("id") Member 만 MemberIdConverter 로 변환 (전역 등록하지 않음): Long id 등 다른 타입은 그대로
+    @InitBinder("id")
+    public void initMemberIdBinder(WebDataBinder binder) {
+        MemberIdConverter converter = new MemberIdConverter(memberBatcher);
+        binder.registerCustomEditor(Member.class, new PropertyEditorSupport() {
+            @Override
+            public void setAsText(String text) {
+                setValue(converter.convert(text));
+            }
+        });
+    }
+
+    //DomainClassConverter 대신 MemberIdConverter: 요청 스레드에서 MicroBatcher 결과를 기다린다.
+    //member 는 같은 배치의 요청과 공유하는 준영속 엔티티: 기본 필드만 읽고 지연 로딩, 수정은 하지 않는다.
     @GetMapping("/members/domain/{id}")
     public String findDomainClassConverterMember(@PathVariable("id") Member member) {
         return member.getUsername();
     }
 
+    //ETag 는 페이지의 회원, 팀 버전: 버전 컬럼, count 만 먼저 조회해서 If-None-Match 와 같으면 본문 조회 없이 304
+    //다르면 본문(MemberDto) 을 조회해서 200, count 는 다시 세지 않는다.
     @GetMapping("/members")
-    public Page<MemberDto> findMembers(
+    public CompletableFuture<ResponseEntity<Page<MemberDto>>> findMembers(
 //            @Qualifier("member")
 //            @PageableDefault(size = 12,
 //                    sort = "username",
 //                    direction = Sort.Direction.DESC)
-            Pageable pageable) {
-        return memberRepository.findAll(pageable)
+            Pageable pageable,
+            HttpServletRequest request) {
+        return requestExecutor.submit(() -> {
+            Page<MemberDtoVersion> versions = memberQueryService.findMemberDtoVersions(pageable);
+            ResourceVersion resourceVersion = ResourceVersion.of(versions);
+            if (resourceVersion.matches(request)) {
+                return resourceVersion.notModified();
+            }
+            return resourceVersion.ok(memberQueryService.findMemberDtos(pageable, versions.getTotalElements()));
+        });
+    }
+
+    /**
+     * keyset 페이징: /members?cursor=&size=20 (첫 페이지), 이후 응답의 next 를 cursor 로 전달
+     * offset, count 쿼리가 없으므로 페이지 깊이와 무관하게 일정한 응답시간
+     */
+    @GetMapping(value = "/members", params = "cursor")
+    @ReadOnlyScope
+    public KeysetSlice<MemberDto> findMembersByCursor(@RequestParam("cursor") String cursor,
+                                                      @RequestParam(value = "size", defaultValue = "20") int size) {
+        if (size < 1) {
+            throw new InvalidRequestException("size must be greater than 0");
+        }
+        MemberKeyset after = StringUtils.hasText(cursor) ? MemberKeyset.decode(cursor) : null;
+        return memberRepository.findMembersAfter(after, Math.min(size, MAX_KEYSET_SIZE))
                 .map(m -> MemberDto.builder()
                         .member(m)
                         .build()
                 );
     }
 
+    /**
+     * 여러 회원 조회: /members?ids=3,1,2 (N 번의 /members/{id} 대신)
+     * 요청한 id 순서대로 MemberDto JSON 배열, 없는 id 는 생략
+     * chunk 단위 in 쿼리를 병렬로 조회하고, 앞 chunk 부터 응답에 쓴다.
+     */
+    @GetMapping(value = "/members", params = "ids")
+    public void findMembersByIds(@RequestParam("ids") List<Long> ids,
+                                 HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        memberBulkLookupService.write(ids, response.getWriter());
+    }
+
+    /**
+     * 전체 회원 export: /members/export?format=ndjson(기본) | csv
+     * 조회한 row 를 바로 응답 스트림에 쓴다.
+     */
+    @GetMapping("/members/export")
+    public void exportMembers(@RequestParam(value = "format", defaultValue = "ndjson") String format,
+                              HttpServletResponse response) throws IOException {
+        MemberExportFormat exportFormat = MemberExportFormat.from(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        memberExportService.export(exportFormat, response.getWriter());
+    }
+
+    //요청 파라미터 검증 실패만 400 (다른 IllegalArgumentException 은 내부 오류)
+    @ExceptionHandler(InvalidRequestException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String badRequest(InvalidRequestException e) {
+        return e.getMessage();
+    }
+
+    @ExceptionHandler(ConnectionPermitTimeoutException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public String serviceUnavailable(ConnectionPermitTimeoutException e) {
+        return e.getMessage();
+    }
+
 //    @PostConstruct
 //    public void init() {
 //        for (int i = 0; i < 100; i++) {
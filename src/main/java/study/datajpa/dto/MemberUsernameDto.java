@@ -0,0 +1,29 @@
+package study.datajpa.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import study.datajpa.entity.Member;
+
+import java.time.LocalDateTime;
+
+/**
+ * GET /members/{id} 응답: username 과 HTTP 조건부 조회 검사값(버전, 수정 일시)
+ * MicroBatcher 로 조회한 회원에서 만들어 SingleFlight 에 담으므로 ETag 를 위한 별도 조회가 없다.
+ */
+@Getter
+@ToString
+public class MemberUsernameDto {
+    private final Long id;
+    private final String username;
+    private final Long version;//저장되지 않은 회원(없는 회원)이면 null
+    private final LocalDateTime lastModifiedDate;
+
+    @Builder
+    private MemberUsernameDto(Member member) {
+        this.id = member.getId();
+        this.username = member.getUsername();
+        this.version = member.getVersion();
+        this.lastModifiedDate = member.getLastModifiedDate();
+    }
+}
@@ -0,0 +1,34 @@
+package study.datajpa.entity;
+
+import study.datajpa.entity.audit.AuditStampProvider;
+
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+
+/**
+ * BaseTimeEntity, BaseEntity 의 일시, 작업자를 채운다.
+ * AuditingEntityListener 와 달리 엔티티마다 메타데이터 조회, 리플렉션 없이 엔티티 메서드를 바로 호출하고
+ * 일시, 작업자는 트랜잭션마다 한번만 만든다. (AuditStampProvider)
+ * Hibernate 가 스프링 빈 컨테이너로 생성하므로 생성자 주입을 받는다.
+ */
+public class AuditListener {
+    private final AuditStampProvider auditStampProvider;
+
+    public AuditListener(AuditStampProvider auditStampProvider) {
+        this.auditStampProvider = auditStampProvider;
+    }
+
+    @PrePersist
+    public void prePersist(BaseTimeEntity entity) {
+        if (auditStampProvider.isEnabled()) {
+            entity.stampCreated(auditStampProvider.current());
+        }
+    }
+
+    @PreUpdate
+    public void preUpdate(BaseTimeEntity entity) {
+        if (auditStampProvider.isEnabled()) {
+            entity.stampModified(auditStampProvider.current());
+        }
+    }
+}
@@ -1,19 +1,26 @@
 package study.datajpa.entity;
 
 import lombok.Getter;
-import org.springframework.data.annotation.CreatedBy;
-import org.springframework.data.annotation.LastModifiedBy;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+import study.datajpa.entity.audit.AuditStamp;
 
-import javax.persistence.EntityListeners;
 import javax.persistence.MappedSuperclass;
 
 @Getter
 @MappedSuperclass
-@EntityListeners(AuditingEntityListener.class)//이벤트 기반으로 동작한다.
 public class BaseEntity extends BaseTimeEntity {
-    @CreatedBy
     private String createdBy;
-    @LastModifiedBy
     private String lastModifiedBy;
+
+    @Override
+    void stampCreated(AuditStamp stamp) {
+        super.stampCreated(stamp);
+        this.createdBy = stamp.getAuditor();
+        this.lastModifiedBy = stamp.getAuditor();
+    }
+
+    @Override
+    void stampModified(AuditStamp stamp) {
+        super.stampModified(stamp);
+        this.lastModifiedBy = stamp.getAuditor();
+    }
 }
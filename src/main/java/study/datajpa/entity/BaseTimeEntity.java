@@ -1,9 +1,7 @@
 package study.datajpa.entity;
 
 import lombok.Getter;
-import org.springframework.data.annotation.CreatedDate;
-import org.springframework.data.annotation.LastModifiedDate;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+import study.datajpa.entity.audit.AuditStamp;
 
 import javax.persistence.EntityListeners;
 import javax.persistence.MappedSuperclass;
@@ -15,10 +13,19 @@ import java.time.LocalDateTime;
  */
 @Getter
 @MappedSuperclass
-@EntityListeners(AuditingEntityListener.class)//이벤트 기반으로 동작한다.
+@EntityListeners(AuditListener.class)//이벤트 기반으로 동작한다.
 public class BaseTimeEntity {
-    @CreatedDate
     private LocalDateTime createdDate;
-    @LastModifiedDate
     private LocalDateTime lastModifiedDate;
+
+    //@PrePersist: 생성 시 수정 일시도 같이 채운다. (AuditingEntityListener modifyOnCreate = true 와 같음)
+    void stampCreated(AuditStamp stamp) {
+        this.createdDate = stamp.getNow();
+        this.lastModifiedDate = stamp.getNow();
+    }
+
+    //@PreUpdate
+    void stampModified(AuditStamp stamp) {
+        this.lastModifiedDate = stamp.getNow();
+    }
 }
@@ -0,0 +1,48 @@
+package study.datajpa.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.LocalDateTime;
+
+/**
+ * 청크 단위 벌크 업데이트의 진행 위치; 청크 업데이트와 같은 트랜잭션에서 갱신되므로 커밋된 청크까지만 기록된다.
+ * 같은 jobName 으로 다시 실행하면 lastId 이후부터 이어서 처리한다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class BulkUpdateCheckpoint {
+    @Id
+    private String jobName;
+
+    private long lastId;//처리 완료한 마지막 id (window 상한)
+    private long maxId;//작업 시작 시점의 최대 id, 이후 추가된 row 는 대상이 아님
+    private long updatedRows;
+    private long chunks;
+    private boolean completed;
+    private LocalDateTime startedDate;
+    private LocalDateTime lastModifiedDate;
+
+    public BulkUpdateCheckpoint(String jobName, long minId, long maxId) {
+        this.jobName = jobName;
+        this.lastId = minId - 1;
+        this.maxId = maxId;
+        this.completed = minId > maxId;
+        this.startedDate = LocalDateTime.now();
+        this.lastModifiedDate = startedDate;
+    }
+
+    public void advance(long lastId, int updatedRows) {
+        this.lastId = lastId;
+        this.updatedRows += updatedRows;
+        this.chunks++;
+        this.completed = lastId >= maxId;
+        this.lastModifiedDate = LocalDateTime.now();
+    }
+}
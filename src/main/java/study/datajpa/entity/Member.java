@@ -9,6 +9,7 @@ import java.util.Objects;
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
+@Table(indexes = @Index(name = "idx_member_username_id", columnList = "username, id"))//keyset 페이징 정렬 조건
 @NamedQuery(
         name = "Member.findByUsername",
         query = "select m from Member m where m.username = :username " //em.createQuery 와 달리 compile time 구문 error 체킹 가능
@@ -19,7 +20,8 @@ import java.util.Objects;
 )
 public class Member extends BaseEntity {
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 50)//pooled-lo: 시퀀스 1회 호출로 id 50개 할당
     private Long id;
 
     private String username;
@@ -30,6 +32,9 @@ public class Member extends BaseEntity {
     @JoinColumn(name = "team_id")
     private Team team;
 
+    @Version//낙관적 락: update ... where version = ? 로 동시 수정 충돌 감지 (OptimisticRetryExecutor 로 재시도)
+    private Long version;
+
     @Builder
     private Member(String username, int age, Team team) {
         this.username = username;
@@ -48,6 +53,10 @@ public class Member extends BaseEntity {
         this.username = username;
     }
 
+    public void changeAge(int age) {
+        this.age = age;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
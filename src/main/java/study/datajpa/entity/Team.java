@@ -1,6 +1,8 @@
 package study.datajpa.entity;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -11,9 +13,12 @@ import java.util.Objects;
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})
+@Cacheable//2차 캐시 대상(sharedCache.mode: ENABLE_SELECTIVE), region 설정은 ehcache.xml
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team")
 public class Team extends BaseEntity {
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_seq_generator")
+    @SequenceGenerator(name = "team_seq_generator", sequenceName = "team_seq", allocationSize = 50)
     @Column(name = "team_id")
     private Long id;
 
@@ -22,6 +27,9 @@ public class Team extends BaseEntity {
     @OneToMany(mappedBy = "team")
     private List<Member> members = new ArrayList<>();
 
+    @Version
+    private Long version;
+
     @Builder
     public Team(String name) {
         this.name = name;
@@ -0,0 +1,18 @@
+package study.datajpa.entity.audit;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * 한 트랜잭션에서 저장/수정하는 엔티티에 공통으로 채우는 일시, 작업자
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class AuditStamp {
+    private final LocalDateTime now;
+    private final String auditor;
+}
@@ -0,0 +1,72 @@
+package study.datajpa.entity.audit;
+
+import org.springframework.data.auditing.DateTimeProvider;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAccessor;
+import java.util.Optional;
+
+/**
+ * 트랜잭션마다 AuditStamp 를 한번만 만든다. (엔티티마다 LocalDateTime.now(), AuditorAware 호출 X)
+ * 같은 트랜잭션에서 저장/수정한 엔티티는 같은 일시, 작업자를 가진다. 트랜잭션 밖에서는 호출마다 새로 만든다.
+ * REQUIRES_NEW 로 중단된 트랜잭션의 값은 새 트랜잭션에서 보이지 않고, 재개되면 다시 사용한다.
+ * DateTimeProvider 로도 등록해서 AuditingEntityListener 를 쓰는 엔티티(Item)도 같은 일시를 사용한다.
+ */
+public class AuditStampProvider implements DateTimeProvider {
+    private final AuditorAware<String> auditorAware;
+    private final boolean enabled;
+
+    public AuditStampProvider(AuditorAware<String> auditorAware, boolean enabled) {
+        this.auditorAware = auditorAware;
+        this.enabled = enabled;
+    }
+
+    //datajpa.auditing.enabled=false 면 BaseTimeEntity, BaseEntity 값을 채우지 않는다.
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public AuditStamp current() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return newStamp();
+        }
+        AuditStamp stamp = (AuditStamp) TransactionSynchronizationManager.getResource(this);
+        if (stamp == null) {
+            stamp = newStamp();
+            bind(stamp);
+        }
+        return stamp;
+    }
+
+    @Override
+    public Optional<TemporalAccessor> getNow() {
+        return Optional.of(current().getNow());
+    }
+
+    private AuditStamp newStamp() {
+        return new AuditStamp(LocalDateTime.now(), auditorAware.getCurrentAuditor().orElse(null));
+    }
+
+    private void bind(AuditStamp stamp) {
+        TransactionSynchronizationManager.bindResource(this, stamp);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResource(AuditStampProvider.this);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(AuditStampProvider.this, stamp);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(AuditStampProvider.this);
+            }
+        });
+    }
+}
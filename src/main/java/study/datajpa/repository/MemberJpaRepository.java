@@ -1,7 +1,11 @@
 package study.datajpa.repository;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.bulk.BulkUpdateProgress;
+import study.datajpa.repository.bulk.ChunkedBulkUpdater;
+import study.datajpa.repository.bulk.ChunkedUpdate;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
@@ -9,11 +13,14 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
+@RequiredArgsConstructor
 public class MemberJpaRepository {
 
     @PersistenceContext
     private EntityManager em;
 
+    private final ChunkedBulkUpdater chunkedBulkUpdater;
+
     public Member save(Member member) {
         em.persist(member);
         return member;
@@ -72,10 +79,22 @@ public class MemberJpaRepository {
     }
 
     public int bulkAgePlus(int age) {
-        return em.createQuery("update Member m " +
+        return em.createQuery("update versioned Member m " +
                         "set m.age = m.age + 1 " +
                         "where m.age >= :age")
                 .setParameter("age", age)
                 .executeUpdate();
     }
+
+    //id 구간별로 나눠서 update + 커밋, 재실행 시 checkpoint 이후부터
+    public BulkUpdateProgress bulkAgePlusChunked(String jobName, int age, int chunkSize) {
+        return chunkedBulkUpdater.execute(ChunkedUpdate.builder()
+                .jobName(jobName)
+                .entityType(Member.class)
+                .set("e.age = e.age + 1")
+                .where("e.age >= :age")
+                .parameter("age", age)
+                .chunkSize(chunkSize)
+                .build());
+    }
 }
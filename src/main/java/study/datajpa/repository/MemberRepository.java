@@ -9,9 +9,12 @@ import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 import study.datajpa.repository.custom.MemberRepositoryCustom;
 import study.datajpa.repository.nativequery.MemberProjection;
+import study.datajpa.repository.projection.MemberVersion;
+import study.datajpa.repository.support.EvictAffected;
 
 import javax.persistence.LockModeType;
 import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,6 +39,7 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m join m.team t")
     List<MemberDto> findMemberDto();
 
+    //in_clause_parameter_padding: 바인드 변수 수를 2의 거듭제곱으로 맞춰 리스트 크기별 SQL 수를 줄임; 큰 리스트는 findByUsernames
     @Query("select m from Member m where m.username in :names ")
     List<Member> findByNames(@Param("names") List<String> names);
 
@@ -62,10 +66,14 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
             countQuery = "select count(m) from Member m where m.age = :age ")
     Page<Member> findMemberAllCountBy(@Param("age") int age, Pageable pageable);
 
-    @Modifying(clearAutomatically = true)//em.clear(); 영속성 컨텍스트 초기화
-    @Query("update Member m set m.age = m.age + 1 where m.age >= :age ")
+    //update 문 하나로 전체 대상 row 를 수정(락); 대량 테이블은 bulkAgePlusChunked
+    //@Modifying(clearAutomatically = true)//em.clear(); 영속성 컨텍스트 초기화
+    @Modifying
+    @EvictAffected(where = "e.age >= :age")//em.clear() 대신 age 이상인 관리 중인 회원만 준영속 상태로
+    @Query("update versioned Member m set m.age = m.age + 1 where m.age >= :age ")//versioned: @Version 도 +1
     int bulkAgePlus(@Param("age") int age);
 
+    //읽기 전용 로딩은 호출하는 쪽(@ReadOnlyScope 서비스)에서, 읽기/쓰기 트랜잭션에서는 일반 관리 엔티티
     @Query("select m from Member m left join fetch m.team t ")
     List<Member> findMembersFetchJoin();
 
@@ -94,6 +102,10 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
 
     <T> List<T> findProjectionsByUsername(@Param("username") String username, Class<T> T);
 
+    //HTTP 조건부 조회(GET /members/{id}): 엔티티 대신 버전 컬럼만, MicroBatcher 로 모은 id 를 in 쿼리 한번으로
+    @Query("select new study.datajpa.repository.projection.MemberVersion(m.id, m.version, m.lastModifiedDate) from Member m where m.id in :ids")
+    List<MemberVersion> findVersionsByIdIn(@Param("ids") Collection<Long> ids);
+
     @Query(value = "select * from member where username = ? ", nativeQuery = true)
     Member findByNativeQuery(String username);
 
@@ -1,7 +1,20 @@
 package study.datajpa.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import study.datajpa.entity.Team;
+import study.datajpa.repository.custom.TeamRepositoryCustom;
 
-public interface TeamRepository extends JpaRepository<Team, Long> {
+import javax.persistence.QueryHint;
+import java.util.List;
+
+public interface TeamRepository extends JpaRepository<Team, Long>, TeamRepositoryCustom {
+
+    //쿼리 캐시: team 테이블이 변경되지 않았으면 id 목록을 캐시에서, 엔티티는 2차 캐시에서 조회
+    @Override
+    @QueryHints(value = {
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "team-query")
+    })
+    List<Team> findAll();
 }
@@ -0,0 +1,119 @@
+package study.datajpa.repository.batch;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 단건 조회를 모아서 한번에 조회한다. (micro batching)
+ * 첫 조회 후 window 가 지나거나 maxBatchSize 개가 모이면 중복을 제거한 key 목록으로 batchLoader 를 한번 호출하고
+ * 결과 Map 에서 각 조회의 값을 꺼내 완료한다. (결과에 없는 key 는 null)
+ * batchLoader 는 window 타이머 스레드나 maxBatchSize 번째 조회를 요청한 스레드에서 호출되므로 오래 걸리는 조회는 다른 스레드에서 실행하고 CompletableFuture 를 반환한다.
+ * 지표: repository.micro.batch.size{name} 한번에 조회한 key 수
+ */
+public class MicroBatcher<K, V> implements DisposableBean {
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Function<List<K>, CompletableFuture<Map<K, V>>> batchLoader;
+    private final ScheduledExecutorService timer;
+    private final DistributionSummary batchSizes;
+
+    private List<Pending<K, V>> pending = new ArrayList<>();//this 로 동기화
+    private long generation;//모은 조회를 내보낼 때마다 증가, 이전 window 타이머 무시
+
+    public MicroBatcher(String name, Duration window, int maxBatchSize,
+                        Function<List<K>, CompletableFuture<Map<K, V>>> batchLoader, MeterRegistry meterRegistry) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be greater than 0");
+        }
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.batchLoader = batchLoader;
+        this.timer = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("micro-batch-" + name + "-"));
+        this.batchSizes = DistributionSummary.builder("repository.micro.batch.size")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<V> load(K key) {
+        CompletableFuture<V> result = new CompletableFuture<>();
+        List<Pending<K, V>> full = null;
+        synchronized (this) {
+            pending.add(new Pending<>(key, result));
+            if (pending.size() >= maxBatchSize) {
+                full = drain();
+            } else if (pending.size() == 1) {
+                long scheduled = generation;
+                timer.schedule(() -> flush(scheduled), windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return result;
+    }
+
+    private void flush(long scheduled) {
+        List<Pending<K, V>> batch;
+        synchronized (this) {
+            if (scheduled != generation || pending.isEmpty()) {
+                return;//maxBatchSize 로 이미 내보냄
+            }
+            batch = drain();
+        }
+        dispatch(batch);
+    }
+
+    private List<Pending<K, V>> drain() {
+        List<Pending<K, V>> batch = pending;
+        pending = new ArrayList<>();
+        generation++;
+        return batch;
+    }
+
+    private void dispatch(List<Pending<K, V>> batch) {
+        LinkedHashSet<K> keys = new LinkedHashSet<>();
+        batch.forEach(p -> keys.add(p.key));
+        batchSizes.record(keys.size());
+        CompletableFuture<Map<K, V>> loaded;
+        try {
+            loaded = batchLoader.apply(new ArrayList<>(keys));
+        } catch (RuntimeException e) {
+            loaded = CompletableFuture.failedFuture(e);
+        }
+        loaded.whenComplete((values, e) -> batch.forEach(p -> {
+            if (e != null) {
+                p.result.completeExceptionally(e);
+            } else {
+                p.result.complete(values.get(p.key));
+            }
+        }));
+    }
+
+    @Override
+    public void destroy() {
+        timer.shutdown();
+    }
+
+    private static class Pending<K, V> {
+        private final K key;
+        private final CompletableFuture<V> result;
+
+        private Pending(K key, CompletableFuture<V> result) {
+            this.key = key;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package study.datajpa.repository.bulk;
+
+import lombok.Getter;
+import lombok.ToString;
+import study.datajpa.entity.BulkUpdateCheckpoint;
+
+import java.time.Duration;
+
+/**
+ * 청크 커밋 시점의 진행 상황; elapsed, rowsPerSecond 는 이번 실행 기준 (재시작 이전 실행 시간은 포함하지 않음)
+ */
+@Getter
+@ToString
+public class BulkUpdateProgress {
+    private final String jobName;
+    private final long lastId;
+    private final long maxId;
+    private final long updatedRows;//재시작 이전 실행분 포함 누적
+    private final long chunks;
+    private final boolean completed;
+    private final long updatedRowsInRun;
+    private final Duration elapsed;
+
+    BulkUpdateProgress(BulkUpdateCheckpoint checkpoint, long updatedRowsInRun, Duration elapsed) {
+        this.jobName = checkpoint.getJobName();
+        this.lastId = checkpoint.getLastId();
+        this.maxId = checkpoint.getMaxId();
+        this.updatedRows = checkpoint.getUpdatedRows();
+        this.chunks = checkpoint.getChunks();
+        this.completed = checkpoint.isCompleted();
+        this.updatedRowsInRun = updatedRowsInRun;
+        this.elapsed = elapsed;
+    }
+
+    public double getRowsPerSecond() {
+        long nanos = elapsed.toNanos();
+        return nanos == 0 ? 0 : updatedRowsInRun * 1_000_000_000.0 / nanos;
+    }
+}
@@ -0,0 +1,127 @@
+package study.datajpa.repository.bulk;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.BulkUpdateCheckpoint;
+import study.datajpa.repository.count.CachedCountStrategy;
+import study.datajpa.repository.support.PersistenceContextEvictor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 한 번의 update 문 대신 id window(chunkSize) 단위로 나눠서 업데이트하고 청크마다 커밋한다.
+ *  - 락 유지 시간, undo/redo 크기가 청크 크기로 제한된다.
+ *  - 청크 업데이트와 checkpoint 갱신이 같은 트랜잭션(REQUIRES_NEW)이므로 중간에 실패해도 같은 jobName 으로 이어서 실행할 수 있다.
+ *  - 호출한 쪽 트랜잭션의 영속성 컨텍스트에서는 실제로 업데이트된 엔티티만 준영속 상태로 만든다. (clearAutomatically 대신)
+ *    2차 캐시는 Hibernate 가 벌크 update 실행 시 해당 엔티티 region 을 비운다.
+ *  - @Version 엔티티는 update versioned 로 버전도 올려서, 청크와 겹친 낙관적 락 수정이 충돌로 감지되게 한다.
+ *  - count 캐시(CachedCountStrategy)는 청크가 커밋될 때마다 무효화한다.
+ * 청크는 별도 트랜잭션에서 실행되므로, 호출한 쪽 트랜잭션이 대상 row 를 수정(락)한 상태로 호출하면 안 된다.
+ */
+@Slf4j
+@Component
+public class ChunkedBulkUpdater {
+    private final EntityManager em;
+    private final TransactionTemplate chunkTransaction;
+    private final CachedCountStrategy cachedCountStrategy;
+
+    public ChunkedBulkUpdater(EntityManager em, PlatformTransactionManager transactionManager, CachedCountStrategy cachedCountStrategy) {
+        this.em = em;
+        this.cachedCountStrategy = cachedCountStrategy;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * @return 마지막 청크 커밋 시점의 진행 상황; 이미 완료된 jobName 이면 아무것도 실행하지 않고 완료 상태를 반환
+     */
+    public BulkUpdateProgress execute(ChunkedUpdate update) {
+        if (update.getChunkSize() < 1) {
+            throw new IllegalArgumentException("chunkSize must be greater than 0");
+        }
+        String entityName = em.getMetamodel().entity(update.getEntityType()).getName();
+        long start = System.nanoTime();
+        long updatedRowsInRun = 0;
+
+        BulkUpdateCheckpoint checkpoint = chunkTransaction.execute(status -> startOrResume(update, entityName));
+        BulkUpdateProgress progress = new BulkUpdateProgress(checkpoint, 0, Duration.ZERO);
+        while (!checkpoint.isCompleted()) {
+            long fromId = checkpoint.getLastId();
+            long toId = Math.min(fromId + update.getChunkSize(), checkpoint.getMaxId());
+            ChunkResult chunk = chunkTransaction.execute(status -> updateChunk(update, entityName, fromId, toId));
+            checkpoint = chunk.checkpoint;
+            updatedRowsInRun += chunk.updated;
+            PersistenceContextEvictor.detach(em, update.getEntityType(), chunk.ids);
+
+            progress = new BulkUpdateProgress(checkpoint, updatedRowsInRun, Duration.ofNanos(System.nanoTime() - start));
+            log.info("bulk update job={} id {}/{} updated={} ({} rows/s)", progress.getJobName(),
+                    progress.getLastId(), progress.getMaxId(), progress.getUpdatedRows(), Math.round(progress.getRowsPerSecond()));
+            update.getListener().accept(progress);
+        }
+        return progress;
+    }
+
+    private BulkUpdateCheckpoint startOrResume(ChunkedUpdate update, String entityName) {
+        BulkUpdateCheckpoint checkpoint = em.find(BulkUpdateCheckpoint.class, update.getJobName());
+        if (checkpoint != null) {
+            if (!checkpoint.isCompleted()) {
+                log.info("resume bulk update job={} from id > {}", checkpoint.getJobName(), checkpoint.getLastId());
+            }
+            return checkpoint;
+        }
+        Object[] range = (Object[]) em.createQuery("select min(e.id), max(e.id) from " + entityName + " e")
+                .getSingleResult();
+        long minId = range[0] == null ? 1 : ((Number) range[0]).longValue();
+        long maxId = range[1] == null ? 0 : ((Number) range[1]).longValue();
+        checkpoint = new BulkUpdateCheckpoint(update.getJobName(), minId, maxId);
+        em.persist(checkpoint);
+        return checkpoint;
+    }
+
+    //조건에 맞는 id 를 먼저 조회해서 실제로 업데이트된 엔티티만 영속성 컨텍스트에서 제거할 수 있게 한다.
+    private ChunkResult updateChunk(ChunkedUpdate update, String entityName, long fromId, long toId) {
+        String condition = update.getWhere() == null ? "" : " and (" + update.getWhere() + ")";
+        Query select = em.createQuery("select e.id from " + entityName + " e " +
+                        "where e.id > :fromId and e.id <= :toId" + condition)
+                .setParameter("fromId", fromId)
+                .setParameter("toId", toId);
+        List<?> ids = bind(select, update.getParameters()).getResultList();
+
+        int updated = 0;
+        if (!ids.isEmpty()) {
+            String versioned = em.getMetamodel().entity(update.getEntityType()).hasVersionAttribute() ? "versioned " : "";
+            Query bulk = em.createQuery("update " + versioned + entityName + " e set " + update.getSet() + " " +
+                            "where e.id in :ids" + condition)
+                    .setParameter("ids", ids);
+            updated = bind(bulk, update.getParameters()).executeUpdate();
+            cachedCountStrategy.invalidateAfterCommit(update.getEntityType());
+        }
+        BulkUpdateCheckpoint checkpoint = em.find(BulkUpdateCheckpoint.class, update.getJobName());
+        checkpoint.advance(toId, updated);
+        return new ChunkResult(checkpoint, ids, updated);
+    }
+
+    private Query bind(Query query, Map<String, Object> parameters) {
+        parameters.forEach(query::setParameter);
+        return query;
+    }
+
+    private static class ChunkResult {
+        private final BulkUpdateCheckpoint checkpoint;
+        private final List<?> ids;
+        private final int updated;
+
+        private ChunkResult(BulkUpdateCheckpoint checkpoint, List<?> ids, int updated) {
+            this.checkpoint = checkpoint;
+            this.ids = ids;
+            this.updated = updated;
+        }
+    }
+}
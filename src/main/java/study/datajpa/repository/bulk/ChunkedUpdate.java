@@ -0,0 +1,39 @@
+package study.datajpa.repository.bulk;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 청크 단위 벌크 업데이트 정의; JPQL 의 엔티티 별칭은 e 로 고정한다.
+ * <pre>
+ * ChunkedUpdate.builder()
+ *         .jobName("member-age-plus-20230101")
+ *         .entityType(Member.class)
+ *         .set("e.age = e.age + 1")
+ *         .where("e.age >= :age")
+ *         .parameter("age", 20)
+ *         .build();
+ * </pre>
+ * 엔티티의 id 는 숫자(Long) 타입이어야 한다.
+ */
+@Getter
+@Builder
+public class ChunkedUpdate {
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    private final String jobName;//checkpoint 키, 같은 이름으로 재실행하면 이어서 처리
+    private final Class<?> entityType;
+    private final String set;
+    private final String where;//생략하면 전체 row
+    @Singular
+    private final Map<String, Object> parameters;
+    @Builder.Default
+    private final int chunkSize = DEFAULT_CHUNK_SIZE;//id window 크기
+    @Builder.Default
+    private final Consumer<BulkUpdateProgress> listener = progress -> {
+    };
+}
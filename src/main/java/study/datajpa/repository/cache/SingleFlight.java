@@ -0,0 +1,178 @@
+package study.datajpa.repository.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 같은 key 의 동시 조회를 하나로 합친다. (single flight)
+ *  - 진행 중인 조회가 있으면 새로 조회하지 않고 그 결과(CompletableFuture)를 같이 기다린다.
+ *  - 조회 결과는 ttl 동안 재사용한다. 최대 maxSize 개, stripes 개로 나눈 LRU 에 나눠 담고 stripe 별로 락을 잡는다.
+ *  - 실패한 조회는 재사용하지 않는다. (기다리던 호출은 같은 예외)
+ * 영속성 컨텍스트는 스레드마다 다르므로 엔티티가 아닌 값, DTO 를 담는다.
+ * domainType 리포지토리의 변경 메서드가 호출되면 전부 무효화하고, 트랜잭션 안이면 커밋 후에 다시 무효화한다. ({@link SingleFlightInvalidator})
+ * 조회 중에 무효화되면 그 결과는 캐시하지 않는다. (무효화 전 값 재사용 방지)
+ * 그 외의 변경(변경 감지, 다른 애플리케이션)은 ttl 만큼 늦게 반영된다.
+ * 지표: repository.single.flight{name, result=hit|coalesced|load}
+ */
+public class SingleFlight<K, V> {
+    private final Class<?> domainType;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final List<Stripe<K, V>> stripes;
+    private final AtomicLong generation = new AtomicLong();//무효화 횟수
+    private final Counter hits;
+    private final Counter coalesced;
+    private final Counter loads;
+
+    public SingleFlight(String name, Class<?> domainType, Duration ttl, int maxSize, int stripes, MeterRegistry meterRegistry) {
+        this(name, domainType, ttl, maxSize, stripes, meterRegistry, Clock.systemUTC());
+    }
+
+    public SingleFlight(String name, Class<?> domainType, Duration ttl, int maxSize, int stripes, MeterRegistry meterRegistry, Clock clock) {
+        if (stripes < 1 || maxSize < stripes) {
+            throw new IllegalArgumentException("stripes must be between 1 and maxSize");
+        }
+        this.domainType = domainType;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        this.stripes = new ArrayList<>(stripes);
+        for (int i = 0; i < stripes; i++) {
+            this.stripes.add(new Stripe<>(maxSize / stripes));
+        }
+        this.hits = counter(name, "hit", meterRegistry);
+        this.coalesced = counter(name, "coalesced", meterRegistry);
+        this.loads = counter(name, "load", meterRegistry);
+    }
+
+    public CompletableFuture<V> get(K key, Function<K, CompletableFuture<V>> loader) {
+        Stripe<K, V> stripe = stripe(key);
+        Cached<V> cached = stripe.get(key, clock.millis());
+        if (cached != null) {
+            hits.increment();
+            return CompletableFuture.completedFuture(cached.value);
+        }
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return existing;
+        }
+        loads.increment();
+        long loadGeneration = generation.get();
+        CompletableFuture<V> loaded;
+        try {
+            loaded = loader.apply(key);
+        } catch (RuntimeException e) {
+            loaded = CompletableFuture.failedFuture(e);
+        }
+        loaded.whenComplete((value, e) -> {
+            //캐시에 먼저 넣고 진행 중 목록에서 제거: 그 사이 호출은 둘 중 하나를 본다.
+            if (e == null && generation.get() == loadGeneration) {
+                stripe.put(key, new Cached<>(value, clock.millis() + ttlMillis));
+            }
+            inFlight.remove(key, flight);
+            if (e == null) {
+                flight.complete(value);
+            } else {
+                flight.completeExceptionally(e);
+            }
+        });
+        return flight;
+    }
+
+    public Class<?> getDomainType() {
+        return domainType;
+    }
+
+    //진행 중인 조회도 목록에서 빼서 이후 호출은 새로 조회한다. (기존 조회를 기다리던 호출은 그 결과를 받는다)
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        inFlight.clear();
+        for (Stripe<K, V> stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    //지금 무효화하고, 트랜잭션 안이면 커밋 후에 다시 무효화 (그 사이 다른 스레드가 커밋 전 값을 캐시할 수 있으므로)
+    public void invalidateAfterCommit() {
+        invalidateAll();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateAll();
+                }
+            });
+        }
+    }
+
+    private Stripe<K, V> stripe(K key) {
+        int hash = key.hashCode();
+        return stripes.get(((hash ^ (hash >>> 16)) & 0x7fffffff) % stripes.size());
+    }
+
+    private static Counter counter(String name, String result, MeterRegistry meterRegistry) {
+        return Counter.builder("repository.single.flight")
+                .tag("name", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static class Cached<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Cached(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    //접근 순서 LinkedHashMap: capacity 를 넘으면 가장 오래 사용하지 않은 항목 제거
+    private static class Stripe<K, V> {
+        private final LinkedHashMap<K, Cached<V>> entries;
+
+        private Stripe(int capacity) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, Cached<V>> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        private synchronized Cached<V> get(K key, long now) {
+            Cached<V> cached = entries.get(key);
+            if (cached == null) {
+                return null;
+            }
+            if (cached.expiresAt <= now) {
+                entries.remove(key);
+                return null;
+            }
+            return cached;
+        }
+
+        private synchronized void put(K key, Cached<V> cached) {
+            entries.put(key, cached);
+        }
+
+        private synchronized void clear() {
+            entries.clear();
+        }
+    }
+}
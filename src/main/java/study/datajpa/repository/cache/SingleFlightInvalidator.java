@@ -0,0 +1,45 @@
+package study.datajpa.repository.cache;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.repository.core.RepositoryInformation;
+import study.datajpa.repository.support.RepositoryInterceptorFactory;
+
+import java.lang.reflect.Method;
+
+/**
+ * 리포지토리의 변경 메서드(save*, delete*, @Modifying 쿼리)가 정상 종료되면
+ * 해당 도메인 타입의 SingleFlight 조회 결과를 무효화하고, 트랜잭션 안이면 커밋 후에 다시 무효화한다.
+ */
+public class SingleFlightInvalidator implements RepositoryInterceptorFactory {
+    private final ObjectProvider<SingleFlight<?, ?>> singleFlights;
+
+    public SingleFlightInvalidator(ObjectProvider<SingleFlight<?, ?>> singleFlights) {
+        this.singleFlights = singleFlights;
+    }
+
+    @Override
+    public MethodInterceptor create(RepositoryInformation repositoryInformation) {
+        Class<?> domainType = repositoryInformation.getDomainType();
+        return invocation -> {
+            Object result = invocation.proceed();
+            if (isModifying(invocation.getMethod())) {
+                singleFlights.forEach(singleFlight -> {
+                    if (singleFlight.getDomainType().equals(domainType)) {
+                        singleFlight.invalidateAfterCommit();
+                    }
+                });
+            }
+            return result;
+        };
+    }
+
+    private boolean isModifying(Method method) {
+        String name = method.getName();
+        return name.startsWith("save")
+                || name.startsWith("delete")
+                || AnnotatedElementUtils.hasAnnotation(method, Modifying.class);
+    }
+}
@@ -0,0 +1,97 @@
+package study.datajpa.repository.count;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * count 결과를 {@link CountQuery} 단위로 ttl 동안 재사용한다.
+ * 리포지토리의 save/delete, @Modifying 쿼리 실행 시 해당 도메인 타입의 캐시가 무효화된다. ({@link CountCacheInvalidator})
+ * 트랜잭션 안의 변경은 커밋 후에 한번 더 무효화하고, count 중에 무효화되면 그 결과는 캐시하지 않는다. (커밋 전 count 재사용 방지)
+ * 리포지토리를 거치지 않는 변경(em.persist, 다른 애플리케이션)은 ttl 만큼 늦게 반영된다.
+ * key 에 요청 파라미터가 포함되므로 최대 maxSize 개: 가득 차면 만료된 항목을 정리하고, 그래도 가득 차면 새 key 는 캐시하지 않는다.
+ */
+public class CachedCountStrategy implements TotalCountStrategy {
+    private final Map<CountQuery, CachedCount> cache = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();//무효화 횟수
+    private final Duration ttl;
+    private final int maxSize;
+    private final Clock clock;
+
+    public CachedCountStrategy(Duration ttl, int maxSize) {
+        this(ttl, maxSize, Clock.systemUTC());
+    }
+
+    public CachedCountStrategy(Duration ttl, int maxSize, Clock clock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be greater than 0");
+        }
+        this.ttl = ttl;
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    @Override
+    public long count(CountQuery query, LongSupplier exactCount) {
+        long now = clock.millis();
+        CachedCount cached = cache.get(query);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.count;
+        }
+        long countGeneration = generation.get();
+        long count = exactCount.getAsLong();
+        if (generation.get() == countGeneration) {
+            put(query, new CachedCount(count, now + ttl.toMillis()), now);
+        }
+        return count;
+    }
+
+    private void put(CountQuery query, CachedCount count, long now) {
+        if (cache.size() >= maxSize && !cache.containsKey(query)) {
+            cache.values().removeIf(cached -> cached.expiresAt <= now);
+            if (cache.size() >= maxSize) {
+                return;
+            }
+        }
+        cache.put(query, count);
+    }
+
+    public void invalidate(Class<?> domainType) {
+        generation.incrementAndGet();
+        cache.keySet().removeIf(query -> query.getDomainType().equals(domainType));
+    }
+
+    //지금 무효화하고, 트랜잭션 안이면 커밋 후에 다시 무효화 (그 사이 다른 트랜잭션이 커밋 전 count 를 캐시할 수 있으므로)
+    public void invalidateAfterCommit(Class<?> domainType) {
+        invalidate(domainType);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(domainType);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.clear();
+    }
+
+    private static class CachedCount {
+        private final long count;
+        private final long expiresAt;
+
+        private CachedCount(long count, long expiresAt) {
+            this.count = count;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
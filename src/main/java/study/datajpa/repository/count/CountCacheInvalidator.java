@@ -0,0 +1,41 @@
+package study.datajpa.repository.count;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.repository.core.RepositoryInformation;
+import study.datajpa.repository.support.RepositoryInterceptorFactory;
+
+import java.lang.reflect.Method;
+
+/**
+ * 리포지토리의 변경 메서드(save*, delete*, @Modifying 쿼리)가 정상 종료되면
+ * 해당 도메인 타입의 count 캐시를 무효화하고, 트랜잭션 안이면 커밋 후에 다시 무효화한다. ex) bulkAgePlus
+ * 청크마다 커밋하는 bulkAgePlusChunked 는 ChunkedBulkUpdater 가 청크 트랜잭션마다 무효화한다.
+ */
+public class CountCacheInvalidator implements RepositoryInterceptorFactory {
+    private final CachedCountStrategy cachedCountStrategy;
+
+    public CountCacheInvalidator(CachedCountStrategy cachedCountStrategy) {
+        this.cachedCountStrategy = cachedCountStrategy;
+    }
+
+    @Override
+    public MethodInterceptor create(RepositoryInformation repositoryInformation) {
+        Class<?> domainType = repositoryInformation.getDomainType();
+        return invocation -> {
+            Object result = invocation.proceed();
+            if (isModifying(invocation.getMethod())) {
+                cachedCountStrategy.invalidateAfterCommit(domainType);
+            }
+            return result;
+        };
+    }
+
+    private boolean isModifying(Method method) {
+        String name = method.getName();
+        return name.startsWith("save")
+                || name.startsWith("delete")
+                || AnnotatedElementUtils.hasAnnotation(method, Modifying.class);
+    }
+}
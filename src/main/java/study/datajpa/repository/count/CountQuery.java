@@ -0,0 +1,43 @@
+package study.datajpa.repository.count;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * count 쿼리 식별자; 도메인 타입 + 쿼리 이름 + 바인딩 파라미터
+ * 파라미터는 equals/hashCode 가 값 기반인 타입만 사용해야 캐시 key 로 동작한다.
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public class CountQuery {
+    private static final String WHOLE_TABLE = "*";
+
+    private final Class<?> domainType;
+    private final String name;
+    private final List<Object> params;
+
+    private CountQuery(Class<?> domainType, String name, List<Object> params) {
+        this.domainType = domainType;
+        this.name = name;
+        this.params = params;
+    }
+
+    public static CountQuery of(Class<?> domainType, String name, Object... params) {
+        return new CountQuery(domainType, name, Collections.unmodifiableList(Arrays.asList(params)));
+    }
+
+    //조건 없는 테이블 전체 count
+    public static CountQuery wholeTable(Class<?> domainType) {
+        return new CountQuery(domainType, WHOLE_TABLE, Collections.emptyList());
+    }
+
+    public boolean isWholeTable() {
+        return WHOLE_TABLE.equals(name);
+    }
+}
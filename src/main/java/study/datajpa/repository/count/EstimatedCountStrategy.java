@@ -0,0 +1,50 @@
+package study.datajpa.repository.count;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import java.util.function.LongSupplier;
+
+/**
+ * 테이블 전체 count 는 DB 통계(H2: INFORMATION_SCHEMA.TABLES.ROW_COUNT_ESTIMATE)의 추정치를 사용한다.
+ * 조건이 있는 count 는 통계로 추정할 수 없으므로 실제 count 쿼리를 실행한다.
+ */
+@Slf4j
+public class EstimatedCountStrategy implements TotalCountStrategy {
+    private static final String ESTIMATE_SQL = "select row_count_estimate from information_schema.tables " +
+            "where upper(table_name) = upper(:tableName) ";
+
+    private final EntityManager em;
+
+    public EstimatedCountStrategy(EntityManager em) {
+        this.em = em;
+    }
+
+    @Override
+    public long count(CountQuery query, LongSupplier exactCount) {
+        if (!query.isWholeTable()) {
+            return exactCount.getAsLong();
+        }
+        try {
+            Object estimate = em.createNativeQuery(ESTIMATE_SQL)
+                    .setParameter("tableName", tableName(query.getDomainType()))
+                    .getSingleResult();
+            return ((Number) estimate).longValue();
+        } catch (PersistenceException e) {//통계를 제공하지 않는 DB
+            log.warn("row count estimate unavailable for {}, fallback to exact count", query.getDomainType(), e);
+            return exactCount.getAsLong();
+        }
+    }
+
+    private String tableName(Class<?> domainType) {
+        EntityPersister persister = em.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getMetamodel()
+                .entityPersister(domainType);
+        return ((AbstractEntityPersister) persister).getTableName();
+    }
+}
@@ -0,0 +1,10 @@
+package study.datajpa.repository.count;
+
+import java.util.function.LongSupplier;
+
+public class ExactCountStrategy implements TotalCountStrategy {
+    @Override
+    public long count(CountQuery query, LongSupplier exactCount) {
+        return exactCount.getAsLong();
+    }
+}
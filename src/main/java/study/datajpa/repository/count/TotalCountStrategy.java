@@ -0,0 +1,17 @@
+package study.datajpa.repository.count;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Page 의 totalCount 를 구하는 전략
+ *  - {@link ExactCountStrategy}: 매번 count 쿼리 실행(스프링 데이터 JPA 기본 동작)
+ *  - {@link CachedCountStrategy}: 쿼리 + 파라미터 단위로 TTL 동안 캐시, 변경 쿼리 실행 시 무효화
+ *  - {@link EstimatedCountStrategy}: 테이블 전체 count 는 DB 통계의 추정치 사용
+ */
+public interface TotalCountStrategy {
+    /**
+     * @param query      count 대상 쿼리 식별자 (캐시 key)
+     * @param exactCount 실제 count 쿼리, 필요할 때만 실행한다.
+     */
+    long count(CountQuery query, LongSupplier exactCount);
+}
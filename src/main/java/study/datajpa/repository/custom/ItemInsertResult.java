@@ -0,0 +1,27 @@
+package study.datajpa.repository.custom;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * insert-only 대량 저장 결과
+ * conflictIds: 이미 존재하는 id 라서 저장하지 않은 row (요청 순서)
+ */
+@Getter
+@ToString
+public class ItemInsertResult {
+    private final int insertedCount;
+    private final List<String> conflictIds;
+
+    public ItemInsertResult(int insertedCount, List<String> conflictIds) {
+        this.insertedCount = insertedCount;
+        this.conflictIds = Collections.unmodifiableList(conflictIds);
+    }
+
+    public boolean hasConflicts() {
+        return !conflictIds.isEmpty();
+    }
+}
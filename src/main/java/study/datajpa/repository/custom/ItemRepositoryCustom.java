@@ -0,0 +1,12 @@
+package study.datajpa.repository.custom;
+
+import study.datajpa.entity.Item;
+
+public interface ItemRepositoryCustom {
+    /**
+     * 외부에서 id 를 할당한 Item 을 insert 만 한다. merge(select) 없이 batchSize 건씩 JDBC batch 로 저장
+     * 이미 존재하는 id 는 실패시키지 않고 결과의 conflictIds 로 돌려준다.
+     * JPA 를 거치지 않으므로 createdDate 는 호출 시점 하나의 값으로 채워진다.
+     */
+    ItemInsertResult insertAll(Iterable<Item> items, int batchSize);
+}
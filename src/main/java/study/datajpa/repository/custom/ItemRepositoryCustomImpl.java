@@ -0,0 +1,114 @@
+package study.datajpa.repository.custom;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Item;
+
+import javax.persistence.EntityManager;
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+@RequiredArgsConstructor
+public class ItemRepositoryCustomImpl implements ItemRepositoryCustom {
+    //이미 있는 id 면 update count 0 → 충돌로 기록, 같은 batch 안의 중복 id 도 앞선 row 가 보이므로 0
+    private static final String INSERT_IF_ABSENT_SQL = "insert into item (id, created_date) " +
+            "select ?, ? from dual " +
+            "where not exists (select 1 from item where id = ?)";
+
+    private final EntityManager em;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public ItemInsertResult insertAll(Iterable<Item> items, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be greater than 0");
+        }
+        em.flush();//영속성 컨텍스트에만 있는 Item 도 중복 검사 대상이 되도록 먼저 반영
+        Timestamp createdDate = Timestamp.valueOf(LocalDateTime.now());
+
+        int insertedCount = 0;
+        List<String> conflictIds = new ArrayList<>();
+        List<String> chunk = new ArrayList<>(batchSize);
+        for (Item item : items) {
+            chunk.add(item.getId());
+            if (chunk.size() == batchSize) {
+                insertedCount += insertChunk(chunk, createdDate, conflictIds);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            insertedCount += insertChunk(chunk, createdDate, conflictIds);
+        }
+        return new ItemInsertResult(insertedCount, conflictIds);
+    }
+
+    /**
+     * not exists 검사 후 다른 트랜잭션이 같은 id 를 먼저 insert 하면 DuplicateKeyException:
+     * savepoint 까지 되돌리고(실패 전에 insert 된 row 포함) 이 chunk 만 한 건씩 다시 저장한다.
+     * PostgreSQL 처럼 실패한 문장이 트랜잭션 전체를 중단시키는 DB 에서도 savepoint 이후로 계속 진행할 수 있다.
+     */
+    private int insertChunk(List<String> ids, Timestamp createdDate, List<String> conflictIds) {
+        List<Object[]> args = new ArrayList<>(ids.size());
+        ids.forEach(id -> args.add(new Object[]{id, createdDate, id}));
+        int[] counts;
+        try {
+            counts = withSavepoint(() -> jdbcTemplate.batchUpdate(INSERT_IF_ABSENT_SQL, args));
+        } catch (DuplicateKeyException e) {
+            return insertOneByOne(ids, createdDate, conflictIds);
+        }
+        int inserted = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                conflictIds.add(ids.get(i));
+            } else {
+                inserted++;
+            }
+        }
+        return inserted;
+    }
+
+    private int insertOneByOne(List<String> ids, Timestamp createdDate, List<String> conflictIds) {
+        int inserted = 0;
+        for (String id : ids) {
+            try {
+                if (withSavepoint(() -> jdbcTemplate.update(INSERT_IF_ABSENT_SQL, id, createdDate, id)) == 0) {
+                    conflictIds.add(id);
+                } else {
+                    inserted++;
+                }
+            } catch (DuplicateKeyException e) {
+                conflictIds.add(id);
+            }
+        }
+        return inserted;
+    }
+
+    //실패하면 savepoint 까지 되돌리고 예외를 그대로 던진다. (insertAll 트랜잭션의 커넥션)
+    private <T> T withSavepoint(Supplier<T> work) {
+        Savepoint savepoint = jdbcTemplate.execute((ConnectionCallback<Savepoint>) Connection::setSavepoint);
+        T result;
+        try {
+            result = work.get();
+        } catch (RuntimeException e) {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                connection.rollback(savepoint);
+                return null;
+            });
+            throw e;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            connection.releaseSavepoint(savepoint);
+            return null;
+        });
+        return result;
+    }
+}
@@ -1,10 +1,98 @@
 package study.datajpa.repository.custom;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.bulk.BulkUpdateProgress;
+import study.datajpa.repository.count.TotalCountStrategy;
+import study.datajpa.repository.keyset.KeysetSlice;
+import study.datajpa.repository.keyset.MemberKeyset;
+import study.datajpa.repository.lock.ClaimMode;
+import study.datajpa.repository.projection.MemberDtoVersion;
+import study.datajpa.repository.spec.MemberSearch;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 //이름 상관없음
 public interface MemberRepositoryCustom {
     List<Member> findMembersCustom();
+
+    //keyset 페이징: (username, id) 오름차순으로 after 이후 size 건, count 쿼리 없음. after == null 이면 첫 페이지
+    KeysetSlice<Member> findMembersAfter(MemberKeyset after, int size);
+
+    //Page + totalCount 전략: 스프링 데이터 JPA 기본 메서드와 같은 결과, count 쿼리 실행 여부만 countStrategy 가 결정
+    Page<Member> findAll(Pageable pageable, TotalCountStrategy countStrategy);
+
+    Page<Member> findPageByAge(int age, Pageable pageable, TotalCountStrategy countStrategy);
+
+    Page<Member> findMemberAllCountBy(int age, Pageable pageable, TotalCountStrategy countStrategy);
+
+    /**
+     * 엔티티 대신 MemberDto 를 바로 조회하는 페이징: select new MemberDto(m.id, m.username, t.name) ... left join m.team t
+     * 엔티티 생성, 스냅샷, 팀 지연 로딩이 없다.
+     *
+     * @param spec     회원 조건, null 이면 전체
+     * @param pageable 회원 속성 정렬, teamName 정렬은 팀 이름
+     */
+    Page<MemberDto> findMemberDtos(Specification<Member> spec, Pageable pageable, TotalCountStrategy countStrategy);
+
+    /**
+     * findMemberDtos(null, pageable, countStrategy) 와 같은 페이지(정렬, 페이징, count)의 회원, 팀 버전 컬럼만 조회
+     * HTTP 조건부 조회(ETag) 검사값: 같으면 본문(MemberDto) 조회 없이 304
+     */
+    Page<MemberDtoVersion> findMemberDtoVersions(Pageable pageable, TotalCountStrategy countStrategy);
+
+    /**
+     * findProjectionsByUsername 의 생성 클래스 버전: 닫힌 인터페이스 프로젝션(UsernameAndAge, NestedClosedProjections, MemberProjection)
+     * 필요한 컬럼만 조회하고 (중첩 프로젝션은 left join), getter 는 리플렉션 없이 값을 읽는다.
+     */
+    <T> List<T> findTupleProjectionsByUsername(String username, Class<T> type);
+
+    /**
+     * 회원 검색: findAll(search.toSpecification(), pageable) 과 같은 결과
+     * Criteria 를 매번 만들지 않고 조건 조합(shape)별로 만들어 둔 JPQL 에 파라미터만 바인딩한다.
+     */
+    Page<Member> search(MemberSearch search, Pageable pageable, TotalCountStrategy countStrategy);
+
+    /**
+     * username in 조회: findByNames 와 같은 결과
+     * datajpa.query.array-parameter-threshold 이하는 in 절(크기를 2의 거듭제곱으로 패딩),
+     * 초과하면 원소마다 바인드 변수를 만들지 않고 배열 파라미터 1개로 조회한다.
+     */
+    List<Member> findByUsernames(Collection<String> usernames);
+
+    /**
+     * forward-only 커서로 전체 회원을 id 순으로 흘려보낸다. 엔티티를 만들지 않는 DTO 조회
+     * 트랜잭션 안에서 호출하고, 사용 후 반드시 close 해야 한다. (try-with-resources)
+     *
+     * @param fetchSize     JDBC fetch size, 한번에 DB 에서 가져오는 row 수
+     * @param clearInterval clearInterval 건마다 영속성 컨텍스트를 비운다.
+     */
+    Stream<MemberDto> streamMemberDtos(int fetchSize, int clearInterval);
+
+    /**
+     * 대량 저장: batchSize 건마다 flush(JDBC batch insert) + clear
+     * 호출한 쪽의 영속성 컨텍스트도 비워지므로 저장 후에는 준영속 상태가 된다.
+     *
+     * @return 저장한 건수
+     */
+    int saveAllBatched(Iterable<Member> members, int batchSize);
+
+    /**
+     * bulkAgePlus 의 청크 버전: age 이상인 회원의 나이를 chunkSize 개 id 구간씩 나눠서 +1, 구간마다 커밋
+     * 실패 후 같은 jobName 으로 다시 호출하면 커밋된 구간 이후부터 이어서 처리하고, 완료된 jobName 은 다시 실행하지 않는다.
+     * 호출한 쪽 영속성 컨텍스트에서는 업데이트된 회원만 준영속 상태가 된다.
+     */
+    BulkUpdateProgress bulkAgePlusChunked(String jobName, int age, int chunkSize);
+
+    /**
+     * 작업 큐: age 가 maxAge 이하인 회원을 id 순으로 최대 limit 명 락을 잡아서(for update) 가져간다.
+     * SKIP_LOCKED 면 다른 트랜잭션이 가져간 회원은 건너뛰므로 여러 워커가 겹치지 않는 회원을 동시에 처리할 수 있다.
+     * 트랜잭션 안에서 호출하고 같은 트랜잭션에서 처리한다. (커밋 시 락 해제)
+     */
+    List<Member> claimMembers(int maxAge, int limit, ClaimMode mode);
 }
@@ -1,10 +1,52 @@
 package study.datajpa.repository.custom;
 
-import lombok.RequiredArgsConstructor;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.bulk.BulkUpdateProgress;
+import study.datajpa.repository.bulk.ChunkedBulkUpdater;
+import study.datajpa.repository.bulk.ChunkedUpdate;
+import study.datajpa.repository.count.CountQuery;
+import study.datajpa.repository.count.TotalCountStrategy;
+import study.datajpa.repository.keyset.KeysetSlice;
+import study.datajpa.repository.keyset.MemberKeyset;
+import study.datajpa.repository.lock.ClaimMode;
+import study.datajpa.repository.lock.RowClaimer;
+import study.datajpa.repository.projection.MemberDtoVersion;
+import study.datajpa.repository.projection.tuple.TupleProjections;
+import study.datajpa.repository.spec.MemberSearch;
+import study.datajpa.repository.spec.MemberSpec;
+import study.datajpa.repository.support.StringArrayType;
 
 import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.*;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.applySorting;
 
 /**
  * 사용자 정의 리포지토리 구현 최신 방식
@@ -23,14 +65,286 @@ import java.util.List;
  *      실제 스프링 DATA JPA(JpaRepository) 를 상속받은 인터페이스 의 이름
  *  스프링 데이터 JPA가 인식해서 스프링 빈으로 등록
  */
-@RequiredArgsConstructor
 public class MemberRepositoryCustomImpl implements MemberRepositoryCustom {
 
     private final EntityManager em;
+    private final ChunkedBulkUpdater chunkedBulkUpdater;
+    private final TupleProjections tupleProjections;
+    private final RowClaimer rowClaimer;
+    private final Map<Integer, MemberSearchQuery> searchQueries = new ConcurrentHashMap<>();
+    private final int arrayParameterThreshold;
+
+    public MemberRepositoryCustomImpl(EntityManager em,
+                                      ChunkedBulkUpdater chunkedBulkUpdater,
+                                      TupleProjections tupleProjections,
+                                      RowClaimer rowClaimer,
+                                      @Value("${datajpa.query.array-parameter-threshold:500}") int arrayParameterThreshold) {
+        this.em = em;
+        this.chunkedBulkUpdater = chunkedBulkUpdater;
+        this.tupleProjections = tupleProjections;
+        this.rowClaimer = rowClaimer;
+        this.arrayParameterThreshold = arrayParameterThreshold;
+    }
 
     @Override
     public List<Member> findMembersCustom() {
         return em.createQuery("select m from Member m")
                 .getResultList();
     }
+
+    /**
+     * offset 대신 마지막으로 읽은 (username, id) 이후부터 조회한다.
+     * (username, id) 인덱스를 타므로 페이지 깊이와 무관하게 일정한 비용; size + 1 건을 조회해서 다음 페이지 여부를 판단한다.
+     * username 이 null 인 회원은 맨 앞(nulls first), 그 안에서 id 순; 비교 조건은 null 을 직접 다룬다.
+     */
+    @Override
+    public KeysetSlice<Member> findMembersAfter(MemberKeyset after, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be greater than 0");
+        }
+        String jpql = "select m from Member m left join fetch m.team t ";
+        if (after != null && after.getUsername() == null) {
+            jpql += "where (m.username is null and m.id > :id) " +
+                    "or m.username is not null ";
+        } else if (after != null) {
+            jpql += "where m.username > :username " +
+                    "or (m.username = :username and m.id > :id) ";
+        }
+        jpql += "order by m.username asc nulls first, m.id asc";
+
+        TypedQuery<Member> query = em.createQuery(jpql, Member.class)
+                .setMaxResults(size + 1);
+        if (after != null) {
+            query.setParameter("id", after.getId());
+        }
+        if (after != null && after.getUsername() != null) {
+            query.setParameter("username", after.getUsername());
+        }
+        List<Member> result = query.getResultList();
+
+        if (result.size() <= size) {
+            return new KeysetSlice<>(result, null);
+        }
+        List<Member> content = result.subList(0, size);
+        return new KeysetSlice<>(content, MemberKeyset.of(content.get(size - 1)).encode());
+    }
+
+    @Override
+    public Page<Member> findAll(Pageable pageable, TotalCountStrategy countStrategy) {
+        List<Member> content = pagingQuery("select m from Member m", pageable)
+                .getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> countStrategy.count(
+                CountQuery.wholeTable(Member.class),
+                () -> em.createQuery("select count(m) from Member m", Long.class)
+                        .getSingleResult()
+        ));
+    }
+
+    @Override
+    public Page<Member> findPageByAge(int age, Pageable pageable, TotalCountStrategy countStrategy) {
+        List<Member> content = pagingQuery("select m from Member m where m.age = :age", pageable)
+                .setParameter("age", age)
+                .getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> countByAge(age, countStrategy));
+    }
+
+    @Override
+    public Page<Member> findMemberAllCountBy(int age, Pageable pageable, TotalCountStrategy countStrategy) {
+        List<Member> content = pagingQuery("select m from Member m left join m.team t where m.age = :age", pageable)
+                .setParameter("age", age)
+                .getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> countByAge(age, countStrategy));
+    }
+
+    @Override
+    public Page<MemberDto> findMemberDtos(Specification<Member> spec, Pageable pageable, TotalCountStrategy countStrategy) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        return memberDtoPage(MemberDto.class,
+                (m, t) -> cb.construct(MemberDto.class, m.get("id"), m.get("username"), t.get("name")),
+                spec, pageable, countStrategy);
+    }
+
+    @Override
+    public Page<MemberDtoVersion> findMemberDtoVersions(Pageable pageable, TotalCountStrategy countStrategy) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        return memberDtoPage(MemberDtoVersion.class,
+                (m, t) -> cb.construct(MemberDtoVersion.class, m.get("id"), m.get("version"), t.get("version")),
+                null, pageable, countStrategy);
+    }
+
+    //findMemberDtos 와 같은 조건, 정렬, 페이징, count 로 select 만 바꿔서 조회
+    private <T> Page<T> memberDtoPage(Class<T> type, BiFunction<Root<Member>, Join<Member, Team>, Selection<T>> selection,
+                                      Specification<Member> spec, Pageable pageable, TotalCountStrategy countStrategy) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(type);
+        Root<Member> m = query.from(Member.class);
+        Join<Member, Team> t = m.join("team", JoinType.LEFT);
+        query.select(selection.apply(m, t));
+        Predicate predicate = spec == null ? null : spec.toPredicate(m, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(memberDtoOrders(pageable.getSort(), m, t, cb));
+
+        TypedQuery<T> typedQuery = em.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset())
+                    .setMaxResults(pageable.getPageSize());
+        }
+        List<T> content = typedQuery.getResultList();
+        //Specification 은 값 비교(equals)가 되지 않아 count 캐시 key 로 쓸 수 없으므로 조건이 있으면 항상 count 쿼리 실행
+        LongSupplier exactCount = () -> countMembers(spec);
+        return PageableExecutionUtils.getPage(content, pageable, () -> spec == null
+                ? countStrategy.count(CountQuery.wholeTable(Member.class), exactCount)
+                : exactCount.getAsLong());
+    }
+
+    @Override
+    public <T> List<T> findTupleProjectionsByUsername(String username, Class<T> type) {
+        return tupleProjections.findAll(Member.class, MemberSpec.username(username), type);
+    }
+
+    @Override
+    public Page<Member> search(MemberSearch search, Pageable pageable, TotalCountStrategy countStrategy) {
+        MemberSearchQuery query = searchQueries.computeIfAbsent(search.shape(), MemberSearchQuery::compile);
+        List<Member> content = query.bind(pagingQuery(query.select(), pageable), search)
+                .getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> countStrategy.count(
+                CountQuery.of(Member.class, "Member.search", search.getUsername(), search.getTeamName(), search.getAgeGoe(), search.getAgeLoe()),
+                () -> query.bind(em.createQuery(query.count(), Long.class), search)
+                        .getSingleResult()
+        ));
+    }
+
+    @Override
+    public List<Member> findByUsernames(Collection<String> usernames) {
+        if (usernames.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (usernames.size() <= arrayParameterThreshold) {
+            return em.createQuery("select m from Member m where m.username in :usernames", Member.class)
+                    .setParameter("usernames", usernames)
+                    .getResultList();
+        }
+        //{m.*}: Hibernate 가 Member 매핑의 컬럼 목록(별칭 포함)으로 펼친다. (select * 의 물리 컬럼 순서에 의존하지 않음)
+        @SuppressWarnings("unchecked")
+        List<Member> result = em.createNativeQuery("select {m.*} from member m where m.username = any(:usernames)")
+                .unwrap(NativeQuery.class)
+                .addEntity("m", Member.class)
+                .setParameter("usernames", usernames.toArray(new String[0]), StringArrayType.INSTANCE)
+                .getResultList();
+        return result;
+    }
+
+    //DTO 의 teamName 은 조인한 팀 이름으로 정렬, 나머지는 회원 속성 경로
+    private List<Order> memberDtoOrders(Sort sort, Root<Member> m, Join<Member, Team> t, CriteriaBuilder cb) {
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            if ("teamName".equals(order.getProperty())) {
+                orders.add(order.isAscending() ? cb.asc(t.get("name")) : cb.desc(t.get("name")));
+            } else {
+                orders.addAll(QueryUtils.toOrders(Sort.by(order), m, cb));
+            }
+        }
+        return orders;
+    }
+
+    private long countMembers(Specification<Member> spec) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Member> m = query.from(Member.class);
+        Predicate predicate = spec == null ? null : spec.toPredicate(m, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return em.createQuery(query.select(cb.count(m)))
+                .getSingleResult();
+    }
+
+    //findPageByAge, findMemberAllCountBy 는 같은 count 쿼리이므로 캐시도 공유한다.
+    private long countByAge(int age, TotalCountStrategy countStrategy) {
+        return countStrategy.count(
+                CountQuery.of(Member.class, "Member.countByAge", age),
+                () -> em.createQuery("select count(m) from Member m where m.age = :age", Long.class)
+                        .setParameter("age", age)
+                        .getSingleResult()
+        );
+    }
+
+    private TypedQuery<Member> pagingQuery(String jpql, Pageable pageable) {
+        TypedQuery<Member> query = em.createQuery(applySorting(jpql, pageable.getSort(), "m"), Member.class);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset())
+                    .setMaxResults(pageable.getPageSize());
+        }
+        return query;
+    }
+
+    @Override
+    public Stream<MemberDto> streamMemberDtos(int fetchSize, int clearInterval) {
+        if (fetchSize < 1 || clearInterval < 1) {
+            throw new IllegalArgumentException("fetchSize, clearInterval must be greater than 0");
+        }
+        Session session = em.unwrap(Session.class);
+        ScrollableResults results = session.createQuery("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) " +
+                        "from Member m left join m.team t " +
+                        "order by m.id", MemberDto.class)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY);
+
+        Spliterator<MemberDto> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            private long count;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super MemberDto> action) {
+                if (!results.next()) {
+                    return false;
+                }
+                action.accept((MemberDto) results.get(0));
+                if (++count % clearInterval == 0) {
+                    session.clear();//row 수와 무관하게 영속성 컨텍스트 크기 유지
+                }
+                return true;
+            }
+        };
+        return StreamSupport.stream(spliterator, false)
+                .onClose(results::close);
+    }
+
+    @Override
+    @Transactional
+    public int saveAllBatched(Iterable<Member> members, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be greater than 0");
+        }
+        int count = 0;
+        for (Member member : members) {
+            em.persist(member);//pooled-lo: 시퀀스 조회는 allocationSize 건마다 1회
+            if (++count % batchSize == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+        return count;
+    }
+
+    @Override
+    public BulkUpdateProgress bulkAgePlusChunked(String jobName, int age, int chunkSize) {
+        return chunkedBulkUpdater.execute(ChunkedUpdate.builder()
+                .jobName(jobName)
+                .entityType(Member.class)
+                .set("e.age = e.age + 1")
+                .where("e.age >= :age")
+                .parameter("age", age)
+                .chunkSize(chunkSize)
+                .build());
+    }
+
+    @Override
+    public List<Member> claimMembers(int maxAge, int limit, ClaimMode mode) {
+        return rowClaimer.claim(Member.class, "e.age <= :maxAge", Map.of("maxAge", maxAge), limit, mode);
+    }
 }
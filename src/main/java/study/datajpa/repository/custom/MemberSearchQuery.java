@@ -0,0 +1,67 @@
+package study.datajpa.repository.custom;
+
+import study.datajpa.repository.spec.MemberSearch;
+
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MemberSearch shape 별로 한번만 만드는 JPQL; 같은 문자열이므로 Hibernate 쿼리 플랜 캐시(HQL 파싱 결과)도 재사용된다.
+ * Criteria(Specification) 는 호출마다 트리 생성 -> JPQL 렌더링을 반복한다.
+ */
+final class MemberSearchQuery {
+    private final int shape;
+    private final String select;
+    private final String count;
+
+    private MemberSearchQuery(int shape) {
+        List<String> conditions = new ArrayList<>();
+        String join = "";
+        if ((shape & MemberSearch.USERNAME) != 0) {
+            conditions.add("m.username = :username");
+        }
+        if ((shape & MemberSearch.TEAM_NAME) != 0) {
+            join = " join m.team t";
+            conditions.add("t.name = :teamName");
+        }
+        if ((shape & MemberSearch.AGE_GOE) != 0) {
+            conditions.add("m.age >= :ageGoe");
+        }
+        if ((shape & MemberSearch.AGE_LOE) != 0) {
+            conditions.add("m.age <= :ageLoe");
+        }
+        String where = conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions);
+        this.shape = shape;
+        this.select = "select m from Member m" + join + where;
+        this.count = "select count(m) from Member m" + join + where;
+    }
+
+    static MemberSearchQuery compile(int shape) {
+        return new MemberSearchQuery(shape);
+    }
+
+    String select() {
+        return select;
+    }
+
+    String count() {
+        return count;
+    }
+
+    <Q extends Query> Q bind(Q query, MemberSearch search) {
+        if ((shape & MemberSearch.USERNAME) != 0) {
+            query.setParameter("username", search.getUsername());
+        }
+        if ((shape & MemberSearch.TEAM_NAME) != 0) {
+            query.setParameter("teamName", search.getTeamName());
+        }
+        if ((shape & MemberSearch.AGE_GOE) != 0) {
+            query.setParameter("ageGoe", search.getAgeGoe());
+        }
+        if ((shape & MemberSearch.AGE_LOE) != 0) {
+            query.setParameter("ageLoe", search.getAgeLoe());
+        }
+        return query;
+    }
+}
@@ -0,0 +1,15 @@
+package study.datajpa.repository.custom;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import study.datajpa.entity.Team;
+
+public interface TeamRepositoryCustom {
+    /**
+     * 컬렉션 fetch join 페이징: members 가 초기화된 Team 페이지
+     * 컬렉션 fetch join + setMaxResults 는 메모리에서 페이징(HHH000104)하므로 두 단계로 나눈다.
+     *  1. 페이지에 해당하는 team id 만 DB 에서 페이징
+     *  2. 해당 id 들의 team + members 를 IN 쿼리 한번으로 fetch join
+     */
+    Page<Team> findTeamsWithMembers(Pageable pageable);
+}
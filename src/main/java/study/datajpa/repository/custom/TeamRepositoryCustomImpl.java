@@ -0,0 +1,57 @@
+package study.datajpa.repository.custom;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import study.datajpa.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+import static org.springframework.data.jpa.repository.query.QueryUtils.applySorting;
+
+@RequiredArgsConstructor
+public class TeamRepositoryCustomImpl implements TeamRepositoryCustom {
+
+    private final EntityManager em;
+
+    @Override
+    public Page<Team> findTeamsWithMembers(Pageable pageable) {
+        TypedQuery<Long> idQuery = em.createQuery(applySorting("select t.id from Team t", pageable.getSort(), "t"), Long.class);
+        if (pageable.isPaged()) {
+            idQuery.setFirstResult((int) pageable.getOffset())
+                    .setMaxResults(pageable.getPageSize());
+        }
+        List<Long> ids = idQuery.getResultList();
+
+        return PageableExecutionUtils.getPage(findWithMembersByIds(ids), pageable, () ->
+                em.createQuery("select count(t) from Team t", Long.class)
+                        .getSingleResult());
+    }
+
+    //IN 쿼리 결과는 순서가 보장되지 않으므로 1단계의 id 순서(정렬 조건)로 다시 정렬
+    private List<Team> findWithMembersByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, Team> teams = em.createQuery("select distinct t from Team t " +
+                        "left join fetch t.members " +
+                        "where t.id in :ids", Team.class)
+                .setParameter("ids", ids)
+                .setHint(QueryHints.HINT_PASS_DISTINCT_THROUGH, false)//distinct 는 엔티티 중복 제거에만 사용, SQL 에는 붙이지 않음
+                .getResultList()
+                .stream()
+                .collect(toMap(Team::getId, Function.identity()));
+        return ids.stream()
+                .map(teams::get)
+                .collect(toList());
+    }
+}
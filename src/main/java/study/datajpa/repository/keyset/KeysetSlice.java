@@ -0,0 +1,35 @@
+package study.datajpa.repository.keyset;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * keyset 페이징 결과; Page 와 달리 count 쿼리, 페이지 번호가 없다.
+ * next: 다음 페이지 조회용 continuation token, 마지막 페이지면 null
+ */
+@Getter
+public class KeysetSlice<T> {
+    private final List<T> content;
+    private final String next;
+
+    public KeysetSlice(List<T> content, String next) {
+        this.content = Collections.unmodifiableList(content);
+        this.next = next;
+    }
+
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    public <U> KeysetSlice<U> map(Function<? super T, ? extends U> converter) {
+        List<U> converted = content.stream()
+                .map(converter)
+                .collect(toList());
+        return new KeysetSlice<>(converted, next);
+    }
+}
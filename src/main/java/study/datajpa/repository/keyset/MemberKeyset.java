@@ -0,0 +1,68 @@
+package study.datajpa.repository.keyset;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import study.datajpa.entity.Member;
+import study.datajpa.web.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * keyset(seek) 페이징의 기준점; (username, id) 이후의 회원을 조회한다.
+ * 클라이언트에게는 {@link #encode()} 로 만든 불투명한(opaque) continuation token 만 노출한다.
+ * username 은 null 일 수 있다. (null 은 맨 앞에 정렬: nulls first)
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public class MemberKeyset {
+    private static final char SEPARATOR = ':';
+
+    private final String username;
+    private final Long id;
+
+    public MemberKeyset(String username, Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("keyset id must not be null");
+        }
+        this.username = username;
+        this.id = id;
+    }
+
+    public static MemberKeyset of(Member member) {
+        return new MemberKeyset(member.getUsername(), member.getId());
+    }
+
+    //id 는 숫자이므로 첫번째 구분자 기준으로 분리, username 에 구분자가 포함되어도 안전
+    //username 이 null 이면 구분자 없이 id 만 ("" 과 구분)
+    public String encode() {
+        String raw = username == null ? String.valueOf(id) : id + String.valueOf(SEPARATOR) + username;
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MemberKeyset decode(String token) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("invalid keyset token: " + token, e);
+        }
+        int separatorIndex = raw.indexOf(SEPARATOR);
+        if (separatorIndex == 0) {
+            throw new InvalidRequestException("invalid keyset token: " + token);
+        }
+        try {
+            if (separatorIndex < 0) {
+                return new MemberKeyset(null, Long.valueOf(raw));
+            }
+            Long id = Long.valueOf(raw.substring(0, separatorIndex));
+            return new MemberKeyset(raw.substring(separatorIndex + 1), id);
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("invalid keyset token: " + token, e);
+        }
+    }
+}
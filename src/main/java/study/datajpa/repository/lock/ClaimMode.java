@@ -0,0 +1,15 @@
+package study.datajpa.repository.lock;
+
+/**
+ * 다른 트랜잭션이 락을 잡고 있는 row 를 만났을 때
+ */
+public enum ClaimMode {
+    /**
+     * 건너뛰고 다음 row 를 가져온다. (for update skip locked) 여러 워커가 서로 다른 row 를 동시에 가져간다.
+     */
+    SKIP_LOCKED,
+    /**
+     * 기다리지 않고 바로 실패한다. (for update nowait) PessimisticLockingFailureException
+     */
+    NOWAIT
+}
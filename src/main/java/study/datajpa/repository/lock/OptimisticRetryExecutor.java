@@ -0,0 +1,111 @@
+package study.datajpa.repository.lock;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.OptimisticLockException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * 낙관적 락(@Version) 충돌 시 새 트랜잭션에서 처음부터 다시 실행한다.
+ *  - 시도마다 REQUIRES_NEW 트랜잭션: 충돌한 트랜잭션은 rollback-only 이고 영속성 컨텍스트의 엔티티도 이미 오래된 상태
+ *  - 재시도 간격: initialBackoff * multiplier^(n-1) (최대 maxBackoff) 범위의 랜덤값 (동시에 충돌한 요청이 같은 시점에 다시 충돌하지 않도록)
+ *  - maxAttempts 를 넘으면 마지막 충돌 예외를 그대로 던진다.
+ * 지표
+ *  - repository.optimistic.conflicts{operation}: 충돌 횟수
+ *  - repository.optimistic.attempts{operation}: 성공까지의 시도 횟수
+ *  - repository.optimistic.exhausted{operation}: 재시도를 모두 소진한 횟수
+ * 호출한 쪽 트랜잭션 안에서 실행하면 호출한 쪽이 읽은 엔티티는 갱신되지 않으므로, 트랜잭션 밖에서 호출한다.
+ */
+@Slf4j
+public class OptimisticRetryExecutor {
+    private final TransactionTemplate attemptTransaction;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final double multiplier;
+
+    public OptimisticRetryExecutor(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                   int maxAttempts, Duration initialBackoff, Duration maxBackoff, double multiplier) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be greater than 0");
+        }
+        this.attemptTransaction = new TransactionTemplate(transactionManager);
+        this.attemptTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.multiplier = multiplier;
+    }
+
+    /**
+     * @param operation 지표 태그 ex) member.changeAge
+     * @param action    조회 -> 수정; 재시도 시 다시 호출되므로 트랜잭션 밖의 상태를 바꾸면 안 된다.
+     */
+    public <T> T execute(String operation, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = attemptTransaction.execute(status -> action.get());
+                attempts(operation).record(attempt);
+                return result;
+            } catch (RuntimeException e) {
+                if (!isConflict(e)) {
+                    throw e;
+                }
+                Counter.builder("repository.optimistic.conflicts").tag("operation", operation).register(meterRegistry).increment();
+                if (attempt >= maxAttempts) {
+                    Counter.builder("repository.optimistic.exhausted").tag("operation", operation).register(meterRegistry).increment();
+                    throw e;
+                }
+                log.debug("optimistic lock conflict operation={} attempt={}", operation, attempt);
+                backoff(attempt);
+            }
+        }
+    }
+
+    public void run(String operation, Runnable action) {
+        execute(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private DistributionSummary attempts(String operation) {
+        return DistributionSummary.builder("repository.optimistic.attempts")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private void backoff(int attempt) {
+        long bound = (long) Math.min(maxBackoff.toNanos(), initialBackoff.toNanos() * Math.pow(multiplier, attempt - 1));
+        if (bound <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(Duration.ofNanos(ThreadLocalRandom.current().nextLong(bound + 1)).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting to retry", e);
+        }
+    }
+
+    //flush 는 리포지토리/트랜잭션 매니저가 스프링 예외로 변환, 변환되지 않은 경로는 JPA 예외가 원인으로 남는다.
+    private static boolean isConflict(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockingFailureException || cause instanceof OptimisticLockException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,255 @@
+package study.datajpa.repository.lock;
+
+import org.hibernate.JDBCException;
+import org.hibernate.LockOptions;
+import org.hibernate.PessimisticLockException;
+import org.hibernate.Session;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.engine.jdbc.spi.JdbcServices;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.exception.LockAcquisitionException;
+import org.hibernate.exception.LockTimeoutException;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.TypedQuery;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 작업 큐처럼 조건에 맞는 row 를 limit 개씩 락을 잡아서(select ... for update) 가져간다.
+ * 락은 호출한 트랜잭션이 끝날 때까지 유지되므로 같은 트랜잭션에서 처리(수정)하고 커밋한다.
+ *  - DB 가 skip locked / nowait 을 지원하면(Dialect) 쿼리 한번: order by id + limit + for update skip locked(nowait)
+ *  - H2 2.1 은 skip locked 문법이 없고 nowait 도 LOCK_TIMEOUT 만큼 기다리므로 직접 구현한다.
+ *    1. 락 없이 후보 id 를 조회
+ *    2. 같은 애플리케이션의 다른 트랜잭션이 가져간 row 는 건너뛰고 나머지를 메모리에 예약 (DB 락 대기 없이 구분)
+ *    3. 세션 LOCK_TIMEOUT 을 1ms 로 낮추고 예약한 row 를 한번에 for update, 실패하면(다른 인스턴스가 락) 한 row 씩 다시 시도
+ *       H2 는 락 실패가 문장 단위 오류라 트랜잭션은 그대로 진행할 수 있다.
+ *    4. 락을 잡기 전에 다른 트랜잭션이 처리하고 커밋했을 수 있으므로 조건을 다시 확인해서 엔티티로 조회
+ *    (락 타임아웃으로 커넥션이 폐기되지 않도록 Hikari exception-override-class-name 설정 필요: LockTimeoutExceptionOverride)
+ *  - 둘 다 아니면 설정 오류: 빈 생성 시 IllegalStateException
+ * where 는 JPQL 조건, 엔티티 별칭은 e ex) "e.age <= :age"
+ */
+@Component
+public class RowClaimer {
+    private static final String LOCK_TIMEOUT_HINT = "javax.persistence.lock.timeout";
+    //후보 조회 단위: 다른 워커가 가져간 row 를 건너뛰어도 limit 을 채울 수 있게 여유 있게 조회
+    private static final int CANDIDATE_FACTOR = 4;
+    private static final int ROW_LOCK_TIMEOUT_MILLIS = 1;
+
+    private final EntityManager em;
+    private final Dialect dialect;
+    //이 애플리케이션에서 진행 중인 트랜잭션이 가져간 row (entityType, id); 트랜잭션이 끝나면 제거
+    private final Set<List<Object>> claimedRows = ConcurrentHashMap.newKeySet();
+
+    public RowClaimer(EntityManager em) {
+        this.em = em;
+        this.dialect = jdbcServices().getDialect();
+        for (ClaimMode mode : ClaimMode.values()) {
+            if (!supportsLockHint(mode) && !(dialect instanceof H2Dialect)) {
+                throw new IllegalStateException(dialect + " does not support " + mode);
+            }
+        }
+    }
+
+    public <T> List<T> claim(Class<T> entityType, String where, Map<String, Object> parameters, int limit, ClaimMode mode) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be greater than 0");
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("claim must be called in a transaction; locks are released when it ends");
+        }
+        if (supportsLockHint(mode)) {
+            return claimWithLockHint(entityType, where, parameters, limit, mode);
+        }
+        return claimOnH2(entityType, where, parameters, limit, mode);
+    }
+
+    private boolean supportsLockHint(ClaimMode mode) {
+        return mode == ClaimMode.SKIP_LOCKED ? dialect.supportsSkipLocked() : dialect.supportsNoWait();
+    }
+
+    private <T> List<T> claimWithLockHint(Class<T> entityType, String where, Map<String, Object> parameters, int limit, ClaimMode mode) {
+        TypedQuery<T> query = em.createQuery(select(entityType, where) + " order by e.id", entityType)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint(LOCK_TIMEOUT_HINT, mode == ClaimMode.SKIP_LOCKED ? LockOptions.SKIP_LOCKED : LockOptions.NO_WAIT)
+                .setMaxResults(limit);
+        parameters.forEach(query::setParameter);
+        return query.getResultList();
+    }
+
+    private <T> List<T> claimOnH2(Class<T> entityType, String where, Map<String, Object> parameters, int limit, ClaimMode mode) {
+        AbstractEntityPersister persister = (AbstractEntityPersister) sessionFactory().getMetamodel().entityPersister(entityType);
+        List<Object> claimed = new ArrayList<>();
+        List<List<Object>> held = releaseOnCompletion();
+        Object lastId = null;
+        int lockTimeout = h2LockTimeout(ROW_LOCK_TIMEOUT_MILLIS);
+        try {
+            while (claimed.size() < limit) {
+                //다른 트랜잭션이 가져간 만큼 더 조회
+                int size = (limit - claimed.size()) * CANDIDATE_FACTOR + claimedRows.size();
+                List<?> candidates = candidates(entityType, where, parameters, lastId, size);
+                if (candidates.isEmpty()) {
+                    break;
+                }
+                int remaining = limit - claimed.size();
+                List<Object> reserved = reserve(entityType, candidates, remaining, mode);
+                claimed.addAll(lock(persister, entityType, reserved, mode, held));
+                //reserve 가 remaining 개를 채우고 멈췄으면 그 뒤 후보는 확인하지 않았으므로 마지막 예약 id 부터 다시 조회
+                lastId = reserved.size() == remaining ? reserved.get(reserved.size() - 1) : candidates.get(candidates.size() - 1);
+            }
+        } finally {
+            h2LockTimeout(lockTimeout);
+        }
+        if (claimed.isEmpty()) {
+            return new ArrayList<>();
+        }
+        TypedQuery<T> query = em.createQuery(select(entityType, where) + " and e.id in :claimed order by e.id", entityType)
+                .setParameter("claimed", claimed);
+        parameters.forEach(query::setParameter);
+        return query.getResultList();
+    }
+
+    private List<?> candidates(Class<?> entityType, String where, Map<String, Object> parameters, Object lastId, int size) {
+        TypedQuery<Object> query = em.createQuery("select e.id from " + entityName(entityType) + " e where (" + where + ")" +
+                        (lastId == null ? "" : " and e.id > :lastId") + " order by e.id", Object.class)
+                .setMaxResults(size);
+        if (lastId != null) {
+            query.setParameter("lastId", lastId);
+        }
+        parameters.forEach(query::setParameter);
+        return query.getResultList();
+    }
+
+    //다른 트랜잭션이 가져가지 않은 후보를 size 개까지 예약
+    private List<Object> reserve(Class<?> entityType, List<?> candidates, int size, ClaimMode mode) {
+        List<Object> reserved = new ArrayList<>();
+        for (Object id : candidates) {
+            if (reserved.size() == size) {
+                break;
+            }
+            if (claimedRows.add(List.of(entityType, id))) {
+                reserved.add(id);
+            } else if (mode == ClaimMode.NOWAIT) {
+                release(entityType, reserved);
+                throw new PessimisticLockingFailureException("row is claimed by another transaction: " + id);
+            }
+        }
+        return reserved;
+    }
+
+    //예약한 row 를 한번에 락, 실패하면 한 row 씩; 락을 잡지 못한 row 는 예약 해제
+    private List<Object> lock(AbstractEntityPersister persister, Class<?> entityType, List<Object> reserved, ClaimMode mode, List<List<Object>> held) {
+        List<Object> locked = Collections.emptyList();
+        try {
+            if (reserved.isEmpty() || lock(persister, reserved, mode)) {
+                locked = reserved;
+            } else {
+                locked = new ArrayList<>();
+                for (Object id : reserved) {
+                    if (lock(persister, List.of(id), mode)) {
+                        locked.add(id);
+                    }
+                }
+            }
+            return locked;
+        } finally {
+            for (Object id : reserved) {
+                if (locked.contains(id)) {
+                    held.add(List.of(entityType, id));
+                } else {
+                    claimedRows.remove(List.of(entityType, id));
+                }
+            }
+        }
+    }
+
+    //SKIP_LOCKED: 다른 트랜잭션이 락을 잡고 있으면 false, NOWAIT: 예외
+    private boolean lock(AbstractEntityPersister persister, List<Object> ids, ClaimMode mode) {
+        String id = persister.getIdentifierColumnNames()[0];
+        String sql = "select " + id + " from " + persister.getTableName() +
+                " where " + id + " in (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ") for update";
+        return em.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < ids.size(); i++) {
+                    statement.setObject(i + 1, ids.get(i));
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                    }
+                }
+                return true;
+            } catch (SQLException e) {
+                JDBCException converted = jdbcServices().getSqlExceptionHelper().convert(e, "claim rows", sql);
+                boolean lockFailure = converted instanceof PessimisticLockException
+                        || converted instanceof LockTimeoutException
+                        || converted instanceof LockAcquisitionException;
+                if (lockFailure && mode == ClaimMode.SKIP_LOCKED) {
+                    return false;
+                }
+                throw converted;
+            }
+        });
+    }
+
+    //트랜잭션이 끝나면(DB 락 해제) 이 트랜잭션이 가져간 row 를 claimedRows 에서 제거
+    private List<List<Object>> releaseOnCompletion() {
+        List<List<Object>> held = new ArrayList<>();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                claimedRows.removeAll(held);
+            }
+        });
+        return held;
+    }
+
+    private void release(Class<?> entityType, List<Object> ids) {
+        ids.forEach(id -> claimedRows.remove(List.of(entityType, id)));
+    }
+
+    //세션 LOCK_TIMEOUT 을 바꾸고 이전 값을 반환
+    private int h2LockTimeout(int millis) {
+        return em.unwrap(Session.class).doReturningWork(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                int previous;
+                try (ResultSet resultSet = statement.executeQuery("select lock_timeout()")) {
+                    resultSet.next();
+                    previous = resultSet.getInt(1);
+                }
+                statement.execute("set lock_timeout " + millis);
+                return previous;
+            }
+        });
+    }
+
+    private String select(Class<?> entityType, String where) {
+        return "select e from " + entityName(entityType) + " e where (" + where + ")";
+    }
+
+    private String entityName(Class<?> entityType) {
+        return em.getMetamodel().entity(entityType).getName();
+    }
+
+    private JdbcServices jdbcServices() {
+        return sessionFactory().getJdbcServices();
+    }
+
+    private SessionFactoryImplementor sessionFactory() {
+        return em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class);
+    }
+}
@@ -0,0 +1,90 @@
+package study.datajpa.repository.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.repository.core.RepositoryInformation;
+import study.datajpa.repository.support.RepositoryInterceptorFactory;
+
+import javax.persistence.LockModeType;
+import javax.persistence.LockTimeoutException;
+import javax.persistence.PessimisticLockException;
+import java.lang.reflect.Method;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 비관적 락(@Lock(PESSIMISTIC_*)) 리포지토리 메서드의 락 대기 지표
+ *  - repository.lock.wait{repository, method, mode}: select ... for update 실행 시간 (다른 트랜잭션이 락을 풀 때까지 대기 포함)
+ *  - repository.lock.failures{repository, method, mode}: 락 타임아웃, 데드락 등으로 실패한 횟수
+ */
+public class LockWaitMetricsInterceptor implements RepositoryInterceptorFactory {
+    private static final Set<LockModeType> PESSIMISTIC = EnumSet.of(
+            LockModeType.PESSIMISTIC_READ, LockModeType.PESSIMISTIC_WRITE, LockModeType.PESSIMISTIC_FORCE_INCREMENT);
+
+    private final MeterRegistry meterRegistry;
+
+    public LockWaitMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public MethodInterceptor create(RepositoryInformation repositoryInformation) {
+        String repository = repositoryInformation.getRepositoryInterface().getSimpleName();
+        Map<Method, Optional<LockMeters>> meters = new ConcurrentHashMap<>();
+        return invocation -> {
+            Optional<LockMeters> lockMeters = meters.computeIfAbsent(invocation.getMethod(), method -> lockMeters(repository, method));
+            if (lockMeters.isEmpty()) {
+                return invocation.proceed();
+            }
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                return invocation.proceed();
+            } catch (RuntimeException e) {
+                if (isLockFailure(e)) {
+                    lockMeters.get().failures.increment();
+                }
+                throw e;
+            } finally {
+                sample.stop(lockMeters.get().wait);
+            }
+        };
+    }
+
+    private Optional<LockMeters> lockMeters(String repository, Method method) {
+        Lock lock = AnnotatedElementUtils.findMergedAnnotation(method, Lock.class);
+        if (lock == null || !PESSIMISTIC.contains(lock.value())) {
+            return Optional.empty();
+        }
+        return Optional.of(new LockMeters(repository, method.getName(), lock.value().name()));
+    }
+
+    //예외 변환(PersistenceExceptionTranslationInterceptor) 전후 어느 쪽에서 실행돼도 감지
+    private static boolean isLockFailure(RuntimeException e) {
+        return e instanceof PessimisticLockingFailureException
+                || e instanceof PessimisticLockException
+                || e instanceof LockTimeoutException;
+    }
+
+    private class LockMeters {
+        private final Timer wait;
+        private final Counter failures;
+
+        private LockMeters(String repository, String method, String mode) {
+            this.wait = Timer.builder("repository.lock.wait")
+                    .tags("repository", repository, "method", method, "mode", mode)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.failures = Counter.builder("repository.lock.failures")
+                    .tags("repository", repository, "method", method, "mode", mode)
+                    .register(meterRegistry);
+        }
+    }
+}
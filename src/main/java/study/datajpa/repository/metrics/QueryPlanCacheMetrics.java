@@ -0,0 +1,52 @@
+package study.datajpa.repository.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.query.spi.QueryPlanCache;
+import org.hibernate.stat.Statistics;
+
+import java.util.Map;
+
+/**
+ * Hibernate 쿼리 플랜 캐시 지표; hit/miss 횟수는 hibernate-micrometer 의 hibernate.cache.query.plan{result=hit|miss}
+ *  - hibernate.query.plan.cache.max.size{cache=query|parameter_metadata}: 설정된 캐시 크기
+ *  - hibernate.query.plan.cache.hit.ratio: 누적 hit / (hit + miss); 낮으면 리스트 크기, 리터럴 등으로 JPQL 이 계속 달라지는 것
+ */
+public class QueryPlanCacheMetrics implements MeterBinder {
+    private static final String PLAN_CACHE_MAX_SIZE = "hibernate.query.plan_cache_max_size";
+    private static final String PARAMETER_METADATA_MAX_SIZE = "hibernate.query.plan_parameter_metadata_max_size";
+
+    private final SessionFactory sessionFactory;
+
+    public QueryPlanCacheMetrics(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Map<String, Object> properties = sessionFactory.getProperties();
+        Gauge.builder("hibernate.query.plan.cache.max.size",
+                        () -> size(properties, PLAN_CACHE_MAX_SIZE, QueryPlanCache.DEFAULT_QUERY_PLAN_MAX_COUNT))
+                .tag("cache", "query")
+                .register(registry);
+        Gauge.builder("hibernate.query.plan.cache.max.size",
+                        () -> size(properties, PARAMETER_METADATA_MAX_SIZE, QueryPlanCache.DEFAULT_PARAMETER_METADATA_MAX_COUNT))
+                .tag("cache", "parameter_metadata")
+                .register(registry);
+        Gauge.builder("hibernate.query.plan.cache.hit.ratio", sessionFactory.getStatistics(), QueryPlanCacheMetrics::hitRatio)
+                .register(registry);
+    }
+
+    private static int size(Map<String, Object> properties, String name, int defaultSize) {
+        Object value = properties.get(name);
+        return value == null ? defaultSize : Integer.parseInt(value.toString());
+    }
+
+    private static double hitRatio(Statistics statistics) {
+        long hits = statistics.getQueryPlanCacheHitCount();
+        long requests = hits + statistics.getQueryPlanCacheMissCount();
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+}
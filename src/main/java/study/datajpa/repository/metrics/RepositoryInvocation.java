@@ -0,0 +1,65 @@
+package study.datajpa.repository.metrics;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * 현재 스레드에서 실행 중인 리포지토리 메서드 호출; JDBC 이벤트를 이 호출에 합산한다.
+ * 리포지토리 안에서 다른 리포지토리를 호출하면 안쪽 호출에만 합산된다.
+ */
+class RepositoryInvocation {
+    private static final ThreadLocal<Deque<RepositoryInvocation>> CURRENT = new ThreadLocal<>();
+
+    private long statements;
+    private long rows;
+    private long jdbcNanos;
+
+    static RepositoryInvocation start() {
+        Deque<RepositoryInvocation> invocations = CURRENT.get();
+        if (invocations == null) {
+            invocations = new ArrayDeque<>();
+            CURRENT.set(invocations);
+        }
+        RepositoryInvocation invocation = new RepositoryInvocation();
+        invocations.push(invocation);
+        return invocation;
+    }
+
+    static void end() {
+        Deque<RepositoryInvocation> invocations = CURRENT.get();
+        invocations.pop();
+        if (invocations.isEmpty()) {
+            CURRENT.remove();
+        }
+    }
+
+    //리포지토리 밖(지연 로딩, 직접 만든 쿼리)의 SQL 이면 null
+    static RepositoryInvocation current() {
+        Deque<RepositoryInvocation> invocations = CURRENT.get();
+        return invocations == null ? null : invocations.peek();
+    }
+
+    void addStatement(long elapsedNanos) {
+        statements++;
+        jdbcNanos += elapsedNanos;
+    }
+
+    void addFetch(long elapsedNanos, boolean hasRow) {
+        if (hasRow) {
+            rows++;
+        }
+        jdbcNanos += elapsedNanos;
+    }
+
+    long getStatements() {
+        return statements;
+    }
+
+    long getRows() {
+        return rows;
+    }
+
+    long getJdbcNanos() {
+        return jdbcNanos;
+    }
+}
@@ -0,0 +1,116 @@
+package study.datajpa.repository.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.core.Ordered;
+import org.springframework.data.repository.core.RepositoryInformation;
+import study.datajpa.repository.support.RepositoryInterceptorFactory;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 리포지토리 메서드별 SQL 실행 수, 조회 row 수, JDBC 시간, hydration 시간을 히스토그램으로 기록한다.
+ *  - repository.method.sql.statements
+ *  - repository.method.rows
+ *  - repository.method.jdbc.time
+ *  - repository.method.hydration.time: 메서드 실행 시간 - JDBC 시간 (엔티티 생성, 매핑, flush 등)
+ *  - repository.method.threshold.exceeded
+ * 실행 시간이나 SQL 수가 임계치를 넘으면 warn 로그를 남긴다. (N + 1 탐지)
+ */
+@Slf4j
+public class RepositoryMetricsInterceptor implements RepositoryInterceptorFactory, Ordered {
+    private final MeterRegistry meterRegistry;
+    private final Duration slowThreshold;
+    private final long statementThreshold;
+
+    public RepositoryMetricsInterceptor(MeterRegistry meterRegistry, Duration slowThreshold, long statementThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.slowThreshold = slowThreshold;
+        this.statementThreshold = statementThreshold;
+    }
+
+    //가장 바깥에서 측정해야 다른 인터셉터에서 실행한 SQL 까지 포함된다.
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public MethodInterceptor create(RepositoryInformation repositoryInformation) {
+        String repository = repositoryInformation.getRepositoryInterface().getSimpleName();
+        Map<Method, MethodMeters> meters = new ConcurrentHashMap<>();
+        return invocation -> {
+            RepositoryInvocation current = RepositoryInvocation.start();
+            long start = System.nanoTime();
+            try {
+                return invocation.proceed();
+            } finally {
+                long elapsedNanos = System.nanoTime() - start;
+                RepositoryInvocation.end();
+                Method method = invocation.getMethod();
+                meters.computeIfAbsent(method, m -> new MethodMeters(repository, m.getName()))
+                        .record(current, elapsedNanos);
+            }
+        };
+    }
+
+    private class MethodMeters {
+        private final String name;
+        private final DistributionSummary statements;
+        private final DistributionSummary rows;
+        private final Timer jdbcTime;
+        private final Timer hydrationTime;
+        private final Counter thresholdExceeded;
+
+        private MethodMeters(String repository, String method) {
+            this.name = repository + "." + method;
+            Tags tags = Tags.of("repository", repository, "method", method);
+            this.statements = DistributionSummary.builder("repository.method.sql.statements")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.rows = DistributionSummary.builder("repository.method.rows")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.jdbcTime = Timer.builder("repository.method.jdbc.time")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.hydrationTime = Timer.builder("repository.method.hydration.time")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.thresholdExceeded = Counter.builder("repository.method.threshold.exceeded")
+                    .tags(tags)
+                    .register(meterRegistry);
+        }
+
+        private void record(RepositoryInvocation invocation, long elapsedNanos) {
+            long jdbcNanos = Math.min(invocation.getJdbcNanos(), elapsedNanos);
+            statements.record(invocation.getStatements());
+            rows.record(invocation.getRows());
+            jdbcTime.record(jdbcNanos, TimeUnit.NANOSECONDS);
+            hydrationTime.record(elapsedNanos - jdbcNanos, TimeUnit.NANOSECONDS);
+
+            if (elapsedNanos > slowThreshold.toNanos() || invocation.getStatements() > statementThreshold) {
+                thresholdExceeded.increment();
+                log.warn("slow repository method {}: {}ms, statements={}, rows={}, jdbc={}ms",
+                        name,
+                        TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                        invocation.getStatements(),
+                        invocation.getRows(),
+                        TimeUnit.NANOSECONDS.toMillis(jdbcNanos));
+            }
+        }
+    }
+}
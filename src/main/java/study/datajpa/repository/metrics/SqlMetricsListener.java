@@ -0,0 +1,31 @@
+package study.datajpa.repository.metrics;
+
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy JDBC 이벤트(실행, ResultSet.next)를 현재 실행 중인 리포지토리 메서드에 합산한다.
+ * 빈으로 등록하면 p6spy-spring-boot-starter 가 리스너로 등록한다.
+ */
+public class SqlMetricsListener extends SimpleJdbcEventListener {
+
+    //execute, executeQuery, executeUpdate, executeBatch
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        RepositoryInvocation invocation = RepositoryInvocation.current();
+        if (invocation != null) {
+            invocation.addStatement(timeElapsedNanos);
+        }
+    }
+
+    @Override
+    public void onAfterResultSetNext(ResultSetInformation resultSetInformation, long timeElapsedNanos, boolean hasNext, SQLException e) {
+        RepositoryInvocation invocation = RepositoryInvocation.current();
+        if (invocation != null) {
+            invocation.addFetch(timeElapsedNanos, hasNext);
+        }
+    }
+}
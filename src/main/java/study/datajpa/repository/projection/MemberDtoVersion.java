@@ -0,0 +1,20 @@
+package study.datajpa.repository.projection;
+
+import lombok.Getter;
+
+/**
+ * GET /members 페이지 HTTP 조건부 조회(ETag) 검사용: MemberDto 대신 회원, 팀 버전 컬럼만 조회
+ * MemberDto.teamName 이 바뀌면 팀 버전이, 소속 팀이 바뀌면 회원 버전이 바뀐다.
+ */
+@Getter
+public class MemberDtoVersion {
+    private final Long id;
+    private final Long version;
+    private final Long teamVersion;//팀 없으면 null
+
+    public MemberDtoVersion(Long id, Long version, Long teamVersion) {
+        this.id = id;
+        this.version = version;
+        this.teamVersion = teamVersion;
+    }
+}
@@ -0,0 +1,22 @@
+package study.datajpa.repository.projection;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * GET /members/{id} HTTP 조건부 조회(ETag, Last-Modified) 검사용: 엔티티 대신 버전 컬럼만 조회
+ * SingleFlight 에 담아 스레드 간에 공유하므로 인터페이스 프로젝션이 아닌 값 객체
+ */
+@Getter
+public class MemberVersion {
+    private final Long id;
+    private final Long version;
+    private final LocalDateTime lastModifiedDate;
+
+    public MemberVersion(Long id, Long version, LocalDateTime lastModifiedDate) {
+        this.id = id;
+        this.version = version;
+        this.lastModifiedDate = lastModifiedDate;
+    }
+}
@@ -0,0 +1,42 @@
+package study.datajpa.repository.projection.tuple;
+
+import java.util.Arrays;
+
+/**
+ * 생성된 프로젝션 클래스의 상위 클래스; getter 는 slot(index) 를 바로 읽는다. (리플렉션, Map 조회 없음)
+ * 값 기반 equals/hashCode 를 제공한다.
+ */
+public abstract class AbstractTupleProjection {
+    private final String[] names;
+    private final Object[] values;
+
+    protected AbstractTupleProjection(String[] names, Object[] values) {
+        this.names = names;
+        this.values = values;
+    }
+
+    protected final Object slot(int index) {
+        return values[index];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return Arrays.equals(values, ((AbstractTupleProjection) o).values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(getClass().getInterfaces()[0].getSimpleName()).append('{');
+        for (int i = 0; i < names.length; i++) {
+            builder.append(i == 0 ? "" : ", ").append(names[i]).append('=').append(values[i]);
+        }
+        return builder.append('}').toString();
+    }
+}
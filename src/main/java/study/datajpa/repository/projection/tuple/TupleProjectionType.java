@@ -0,0 +1,169 @@
+package study.datajpa.repository.projection.tuple;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.dynamic.scaffold.subclass.ConstructorStrategy;
+import net.bytebuddy.implementation.MethodCall;
+import net.bytebuddy.implementation.bytecode.assign.Assigner;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mapping.PropertyPath;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static net.bytebuddy.matcher.ElementMatchers.named;
+import static net.bytebuddy.matcher.ElementMatchers.takesArguments;
+
+/**
+ * 닫힌(closed) 인터페이스 프로젝션 하나에 대한 생성 클래스와 tuple 배치
+ *  - 프로퍼티는 이름순으로 slot 을 배정하고, 중첩 인터페이스 프로젝션은 하위 프로퍼티를 이어서 배치한다.
+ *    ex) NestedClosedProjections: [team.name, username]
+ *  - 프로퍼티 경로는 스프링 데이터 규칙으로 해석한다. ex) MemberProjection.getTeamName() -> team.name
+ *  - 중첩 프로젝션은 tuple 을 만들 때 같이 생성하고, 하위 값이 모두 null 이면 (left join 대상 없음) null
+ */
+class TupleProjectionType {
+    private static final Method SLOT;
+
+    static {
+        try {
+            SLOT = AbstractTupleProjection.class.getDeclaredMethod("slot", int.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private final Class<?> projectionType;
+    private final List<Property> properties;
+    private final List<String> paths;//tuple 컬럼 순서 = 중첩 포함 leaf 프로퍼티 경로
+    private final String[] names;
+    private final MethodHandle constructor;
+
+    private TupleProjectionType(Class<?> projectionType, Class<?> domainType, String prefix) {
+        this.projectionType = projectionType;
+        this.properties = new ArrayList<>();
+        this.paths = new ArrayList<>();
+        for (Method getter : getters(projectionType)) {
+            String name = propertyName(getter);
+            String path = PropertyPath.from(name, domainType).toDotPath();
+            Class<?> returnType = getter.getReturnType();
+            if (returnType.isInterface() && !returnType.getName().startsWith("java.")) {
+                PropertyPath nestedPath = PropertyPath.from(path, domainType);
+                TupleProjectionType nested = new TupleProjectionType(returnType, nestedPath.getLeafProperty().getType(), prefix + path + ".");
+                properties.add(new Property(name, getter, nested));
+                paths.addAll(nested.paths);
+            } else if (Collection.class.isAssignableFrom(returnType) || Map.class.isAssignableFrom(returnType)) {
+                throw new IllegalArgumentException("collection projection is not supported: " + getter);
+            } else {
+                properties.add(new Property(name, getter, null));
+                paths.add(prefix + path);
+            }
+        }
+        this.names = properties.stream().map(property -> property.name).toArray(String[]::new);
+        this.constructor = generate();
+    }
+
+    static TupleProjectionType of(Class<?> projectionType, Class<?> domainType) {
+        return new TupleProjectionType(projectionType, domainType, "");
+    }
+
+    List<String> paths() {
+        return paths;
+    }
+
+    Object create(Object[] row) {
+        return create(row, new int[]{0}, false);
+    }
+
+    private Object create(Object[] row, int[] offset, boolean nullable) {
+        Object[] values = new Object[properties.size()];
+        boolean allNull = true;
+        for (int i = 0; i < values.length; i++) {
+            Property property = properties.get(i);
+            values[i] = property.nested == null ? row[offset[0]++] : property.nested.create(row, offset, true);
+            allNull &= values[i] == null;
+        }
+        if (allNull && nullable) {
+            return null;
+        }
+        try {
+            return constructor.invoke(names, values);
+        } catch (Throwable e) {
+            throw new IllegalStateException("cannot create projection " + projectionType.getName(), e);
+        }
+    }
+
+    //getter 마다 slot(i) 반환: 반환 타입으로 캐스팅/언박싱
+    private MethodHandle generate() {
+        DynamicType.Builder<AbstractTupleProjection> builder = new ByteBuddy()
+                .subclass(AbstractTupleProjection.class, ConstructorStrategy.Default.IMITATE_SUPER_CLASS_OPENING)
+                .implement(projectionType)
+                .name(projectionType.getName() + "$TupleProjection");
+        for (int i = 0; i < properties.size(); i++) {
+            builder = builder.method(named(properties.get(i).getter.getName()).and(takesArguments(0)))
+                    .intercept(MethodCall.invoke(SLOT).with(i).withAssigner(Assigner.DEFAULT, Assigner.Typing.DYNAMIC));
+        }
+        Class<?> generated = builder.make()
+                .load(projectionType.getClassLoader(), ClassLoadingStrategy.Default.WRAPPER)
+                .getLoaded();
+        try {
+            return MethodHandles.lookup()
+                    .unreflectConstructor(generated.getConstructor(String[].class, Object[].class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static List<Method> getters(Class<?> projectionType) {
+        if (!projectionType.isInterface()) {
+            throw new IllegalArgumentException("projection must be an interface: " + projectionType.getName());
+        }
+        List<Method> getters = new ArrayList<>();
+        for (Method method : projectionType.getMethods()) {
+            if (method.isDefault() || Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            if (method.getParameterCount() != 0 || method.getReturnType() == void.class || propertyName(method) == null
+                    || method.isAnnotationPresent(Value.class)) {
+                throw new IllegalArgumentException("only closed projection getters are supported: " + method);
+            }
+            getters.add(method);
+        }
+        getters.sort(Comparator.comparing(TupleProjectionType::propertyName));
+        return getters;
+    }
+
+    private static String propertyName(Method getter) {
+        String name = getter.getName();
+        int prefix = name.startsWith("get") ? 3 : name.startsWith("is") ? 2 : 0;
+        if (prefix == 0 || name.length() == prefix) {
+            return null;
+        }
+        return Character.toLowerCase(name.charAt(prefix)) + name.substring(prefix + 1);
+    }
+
+    @Override
+    public String toString() {
+        return projectionType.getSimpleName() + Arrays.toString(names);
+    }
+
+    private static class Property {
+        private final String name;
+        private final Method getter;
+        private final TupleProjectionType nested;
+
+        private Property(String name, Method getter, TupleProjectionType nested) {
+            this.name = name;
+            this.getter = getter;
+            this.nested = nested;
+        }
+    }
+}
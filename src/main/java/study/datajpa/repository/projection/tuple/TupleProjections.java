@@ -0,0 +1,70 @@
+package study.datajpa.repository.projection.tuple;
+
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 닫힌 인터페이스 프로젝션을 생성 클래스(ByteBuddy)로 조회한다.
+ * 스프링 데이터 기본 방식(JDK 동적 프록시 + Map, getter 마다 리플렉션)과 달리
+ *  - 프로젝션 타입마다 한번 클래스를 생성하고, getter 는 tuple slot 을 index 로 읽는다.
+ *  - 중첩 프로젝션도 엔티티를 로딩하지 않고 left join 한 컬럼만 조회한다. (쿼리 1번)
+ */
+@Component
+public class TupleProjections {
+    private final EntityManager em;
+    private final Map<Class<?>, Map<Class<?>, TupleProjectionType>> types = new ConcurrentHashMap<>();
+
+    public TupleProjections(EntityManager em) {
+        this.em = em;
+    }
+
+    public <E, T> List<T> findAll(Class<E> domainType, Specification<E> spec, Class<T> projectionType) {
+        TupleProjectionType type = types.computeIfAbsent(domainType, d -> new ConcurrentHashMap<>())
+                .computeIfAbsent(projectionType, p -> TupleProjectionType.of(p, domainType));
+
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<E> root = query.from(domainType);
+        Map<String, From<?, ?>> joins = new HashMap<>();
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String path : type.paths()) {
+            selections.add(path(root, path, joins));
+        }
+        query.multiselect(selections);
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        TypedQuery<Tuple> typedQuery = em.createQuery(query);
+        List<T> result = new ArrayList<>();
+        for (Tuple tuple : typedQuery.getResultList()) {
+            result.add(projectionType.cast(type.create(tuple.toArray())));
+        }
+        return result;
+    }
+
+    //team.name -> left join team + name; 같은 연관관계는 join 하나를 공유
+    private Path<?> path(Root<?> root, String dotPath, Map<String, From<?, ?>> joins) {
+        String[] segments = dotPath.split("\\.");
+        From<?, ?> from = root;
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < segments.length - 1; i++) {
+            joined.append(i == 0 ? "" : ".").append(segments[i]);
+            From<?, ?> parent = from;
+            String segment = segments[i];
+            from = joins.computeIfAbsent(joined.toString(), key -> parent.join(segment, JoinType.LEFT));
+        }
+        return from.get(segments[segments.length - 1]);
+    }
+}
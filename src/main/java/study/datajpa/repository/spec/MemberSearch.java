@@ -0,0 +1,53 @@
+package study.datajpa.repository.spec;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+import study.datajpa.entity.Member;
+
+/**
+ * 회원 검색 조건; null(빈 문자열) 인 조건은 제외
+ * 값이 있는 조건의 조합(shape)이 같으면 같은 쿼리를 재사용하고 파라미터만 바인딩한다. (MemberRepository.search)
+ */
+@Getter
+@ToString
+public class MemberSearch {
+    public static final int USERNAME = 1;
+    public static final int TEAM_NAME = 1 << 1;
+    public static final int AGE_GOE = 1 << 2;
+    public static final int AGE_LOE = 1 << 3;
+
+    private final String username;
+    private final String teamName;
+    private final Integer ageGoe;
+    private final Integer ageLoe;
+
+    @Builder
+    private MemberSearch(String username, String teamName, Integer ageGoe, Integer ageLoe) {
+        this.username = StringUtils.hasText(username) ? username : null;
+        this.teamName = StringUtils.hasText(teamName) ? teamName : null;
+        this.ageGoe = ageGoe;
+        this.ageLoe = ageLoe;
+    }
+
+    //값이 있는 조건의 bit 조합; 값과 무관하게 조건 구성이 같으면 같은 shape
+    public int shape() {
+        return (username != null ? USERNAME : 0)
+                | (teamName != null ? TEAM_NAME : 0)
+                | (ageGoe != null ? AGE_GOE : 0)
+                | (ageLoe != null ? AGE_LOE : 0);
+    }
+
+    //같은 조건의 Specification (JpaSpecificationExecutor 용)
+    public Specification<Member> toSpecification() {
+        Specification<Member> spec = Specification.where(null);
+        if (username != null) {
+            spec = spec.and(MemberSpec.username(username));
+        }
+        return spec.and(MemberSpec.teamName(teamName))
+                .and(MemberSpec.ageGoe(ageGoe))
+                .and(MemberSpec.ageLoe(ageLoe));
+    }
+}
@@ -16,11 +16,19 @@ public class MemberSpec {
 
     public static Specification<Member> teamName(String teamName) {
         return (root, query, builder) -> {
-            if (StringUtils.hasText(teamName)) {
+            if (!StringUtils.hasText(teamName)) {
                 return null;
             }
             Join<Member, Team> t = root.join("team", JoinType.INNER);//회원과 조인
             return builder.equal(t.get("name"), teamName);
         };
     }
-}
\ No newline at end of file
+
+    public static Specification<Member> ageGoe(Integer age) {
+        return (root, query, builder) -> age == null ? null : builder.greaterThanOrEqualTo(root.get("age"), age);
+    }
+
+    public static Specification<Member> ageLoe(Integer age) {
+        return (root, query, builder) -> age == null ? null : builder.lessThanOrEqualTo(root.get("age"), age);
+    }
+}
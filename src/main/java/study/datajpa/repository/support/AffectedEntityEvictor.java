@@ -0,0 +1,119 @@
+package study.datajpa.repository.support;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import javax.persistence.Parameter;
+import javax.persistence.Query;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link EvictAffected} 가 붙은 리포지토리 메서드 실행 후 대상 엔티티만 영속성 컨텍스트, 2차 캐시에서 제거한다.
+ *  - 영속성 컨텍스트: 관리 중인 엔티티 중 where 조건에 맞는 것만 (관리 중인 id 로 제한해서 조회하므로 비용은 영속성 컨텍스트 크기에 비례)
+ *  - 2차 캐시: 캐시 대상 엔티티면 where 조건에 맞는 id 만, where 가 없으면 엔티티 region 전체
+ *    (JPQL 벌크 연산은 Hibernate 도 region 을 비우지만, JdbcTemplate 등 Hibernate 를 거치지 않는 사용자 정의 메서드는 비우지 않는다.)
+ *  다른 타입의 엔티티, 조건에 맞지 않는 엔티티는 그대로 관리 상태로 남는다.
+ */
+public class AffectedEntityEvictor implements RepositoryInterceptorFactory {
+    private final EntityManager em;
+
+    public AffectedEntityEvictor(EntityManager em) {
+        this.em = em;
+    }
+
+    @Override
+    public MethodInterceptor create(RepositoryInformation repositoryInformation) {
+        Class<?> domainType = repositoryInformation.getDomainType();
+        Map<Method, Optional<EvictAffected>> annotations = new ConcurrentHashMap<>();
+        return invocation -> {
+            Optional<EvictAffected> evictAffected = annotations.computeIfAbsent(invocation.getMethod(),
+                    method -> Optional.ofNullable(AnnotatedElementUtils.findMergedAnnotation(method, EvictAffected.class)));
+            if (evictAffected.isEmpty() || !TransactionSynchronizationManager.isActualTransactionActive()) {
+                return invocation.proceed();
+            }
+            EvictAffected evict = evictAffected.get();
+            Class<?> entityType = evict.entity() == void.class ? domainType : evict.entity();
+
+            //조건은 벌크 연산으로 값이 바뀌기 전에 평가한다.
+            Map<Object, Object> managed = PersistenceContextEvictor.managed(em, entityType);
+            List<?> affectedManaged = managed.isEmpty() ? Collections.emptyList() : affectedIds(evict, entityType, managed.keySet(), invocation);
+            List<?> affectedCached = isCached(entityType) && !evict.where().isEmpty() ? affectedIds(evict, entityType, null, invocation) : null;
+
+            Object result = invocation.proceed();
+
+            for (Object id : affectedManaged) {
+                Object entity = managed.get(id);
+                if (evict.mode() == EvictAffected.Mode.REFRESH) {
+                    em.refresh(entity);
+                } else {
+                    em.detach(entity);
+                }
+            }
+            if (isCached(entityType)) {
+                Cache cache = em.getEntityManagerFactory().getCache();
+                if (affectedCached == null) {
+                    cache.evict(entityType);
+                } else {
+                    affectedCached.forEach(id -> cache.evict(entityType, id));
+                }
+            }
+            return result;
+        };
+    }
+
+    //managedIds == null 이면 관리 여부와 무관하게 조건에 맞는 전체 id
+    private List<?> affectedIds(EvictAffected evict, Class<?> entityType, Collection<Object> managedIds, MethodInvocation invocation) {
+        if (evict.where().isEmpty() && managedIds != null) {
+            return new ArrayList<>(managedIds);
+        }
+        List<String> conditions = new ArrayList<>();
+        if (!evict.where().isEmpty()) {
+            conditions.add("(" + evict.where() + ")");
+        }
+        if (managedIds != null) {
+            conditions.add("e.id in :managedIds");
+        }
+        String entityName = em.getMetamodel().entity(entityType).getName();
+        Query query = em.createQuery("select e.id from " + entityName + " e where " + String.join(" and ", conditions));
+        if (managedIds != null) {
+            query.setParameter("managedIds", managedIds);
+        }
+        Map<String, Object> arguments = namedArguments(invocation);
+        for (Parameter<?> parameter : query.getParameters()) {
+            if (arguments.containsKey(parameter.getName())) {
+                query.setParameter(parameter.getName(), arguments.get(parameter.getName()));
+            }
+        }
+        return query.getResultList();
+    }
+
+    private Map<String, Object> namedArguments(MethodInvocation invocation) {
+        Map<String, Object> arguments = new HashMap<>();
+        Annotation[][] parameterAnnotations = invocation.getMethod().getParameterAnnotations();
+        for (int i = 0; i < parameterAnnotations.length; i++) {
+            for (Annotation annotation : parameterAnnotations[i]) {
+                if (annotation instanceof Param) {
+                    arguments.put(((Param) annotation).value(), invocation.getArguments()[i]);
+                }
+            }
+        }
+        return arguments;
+    }
+
+    private boolean isCached(Class<?> entityType) {
+        return em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getMetamodel()
+                .entityPersister(entityType)
+                .canReadFromCache();
+    }
+}
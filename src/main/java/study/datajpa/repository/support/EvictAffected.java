@@ -0,0 +1,38 @@
+package study.datajpa.repository.support;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * {@code @Modifying(clearAutomatically = true)} 대신 사용: 영속성 컨텍스트 전체가 아니라 벌크 연산 대상 엔티티만 무효화한다.
+ * <pre>
+ * &#64;Modifying
+ * &#64;EvictAffected(where = "e.age >= :age")
+ * &#64;Query("update Member m set m.age = m.age + 1 where m.age >= :age ")
+ * int bulkAgePlus(&#64;Param("age") int age);
+ * </pre>
+ * where 는 update 문의 조건과 같은 JPQL 조건(별칭 e, 메서드의 @Param 이름 사용)으로, 쿼리 실행 전에 평가한다.
+ * 생략하면 해당 타입의 관리 중인 엔티티 전부가 대상이다.
+ *
+ * @see AffectedEntityEvictor
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface EvictAffected {
+
+    //기본값: 리포지토리의 도메인 타입
+    Class<?> entity() default void.class;
+
+    String where() default "";
+
+    Mode mode() default Mode.DETACH;
+
+    enum Mode {
+        DETACH,//준영속 상태로 만들고 다음 조회 시 다시 읽는다.
+        REFRESH//같은 인스턴스를 DB 값으로 다시 채운다. (대상 엔티티마다 select)
+    }
+}
@@ -0,0 +1,55 @@
+package study.datajpa.repository.support;
+
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 영속성 컨텍스트 전체를 비우는 em.clear() 대신, 벌크 연산으로 DB 와 달라진 엔티티만 준영속 상태로 만든다.
+ * 준영속 상태가 된 엔티티는 다음 조회 시 DB 에서 다시 읽는다.
+ */
+public final class PersistenceContextEvictor {
+
+    private PersistenceContextEvictor() {
+    }
+
+    /**
+     * @return 준영속 상태로 만든 엔티티 수; 현재 스레드에 트랜잭션이 없으면 (영속성 컨텍스트가 없으므로) 0
+     */
+    public static int detach(EntityManager em, Class<?> entityType, Collection<?> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int detached = 0;
+        for (Map.Entry<Object, Object> entry : managed(em, entityType).entrySet()) {
+            if (ids.contains(entry.getKey())) {
+                em.detach(entry.getValue());
+                detached++;
+            }
+        }
+        return detached;
+    }
+
+    /**
+     * 현재 영속성 컨텍스트가 관리하는 entityType 엔티티 (id -> 엔티티), 트랜잭션이 없으면 빈 Map
+     * 프록시는 초기화 여부와 무관하게 엔티티 엔트리가 없으면 포함되지 않는다.
+     */
+    public static Map<Object, Object> managed(EntityManager em, Class<?> entityType) {
+        Map<Object, Object> managed = new LinkedHashMap<>();
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return managed;
+        }
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            if (entityType.isInstance(entry.getKey())) {
+                managed.put(entry.getValue().getId(), entry.getKey());
+            }
+        }
+        return managed;
+    }
+}
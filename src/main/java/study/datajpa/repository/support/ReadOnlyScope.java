@@ -0,0 +1,23 @@
+package study.datajpa.repository.support;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 메서드 실행 동안 영속성 컨텍스트를 읽기 전용으로 사용한다. (클래스에 붙이면 모든 public 메서드)
+ *  - 조회한 엔티티는 읽기 전용: 변경 감지용 스냅샷을 만들지 않고, flush 대상에서 제외
+ *  - FlushMode.MANUAL: 조회 전, 커밋 시 flush 하지 않음
+ *  - 트랜잭션이 없으면 읽기 전용 트랜잭션을 시작한다. (OSIV 조회 등 여러 쿼리를 하나의 트랜잭션으로)
+ * 범위 안에서 조회한 엔티티는 범위가 끝난 뒤에도 읽기 전용이므로 수정해도 DB 에 반영되지 않는다.
+ * 스프링 빈의 메서드, 리포지토리 인터페이스/쿼리 메서드에 사용할 수 있다.
+ *
+ * @see ReadOnlyScopeInterceptor
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReadOnlyScope {
+}
@@ -0,0 +1,82 @@
+package study.datajpa.repository.support;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link ReadOnlyScope} 구현
+ *  - 스프링 빈: Advisor 로 등록 (PersistenceContextConfig)
+ *  - 리포지토리: RepositoryInterceptorFactory 로 프록시에 추가
+ * 읽기/쓰기 트랜잭션 안에서 호출되면 그 트랜잭션의 세션 설정만 바꿨다가 되돌린다. (중첩 가능)
+ * Spring 의 @Transactional(readOnly = true) 는 기존 트랜잭션에 참여하면 무시되지만, 이 범위는 기존 트랜잭션에도 적용된다.
+ */
+public class ReadOnlyScopeInterceptor implements MethodInterceptor, RepositoryInterceptorFactory {
+    private final EntityManager em;
+    private final PlatformTransactionManager transactionManager;
+    private final DefaultTransactionDefinition readOnlyTransaction;
+
+    public ReadOnlyScopeInterceptor(EntityManager em, PlatformTransactionManager transactionManager) {
+        this.em = em;
+        this.transactionManager = transactionManager;
+        this.readOnlyTransaction = new DefaultTransactionDefinition();
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public MethodInterceptor create(RepositoryInformation repositoryInformation) {
+        boolean repositoryScoped = AnnotatedElementUtils.hasAnnotation(repositoryInformation.getRepositoryInterface(), ReadOnlyScope.class);
+        Map<Method, Boolean> scoped = new ConcurrentHashMap<>();
+        return invocation -> {
+            boolean readOnly = repositoryScoped || scoped.computeIfAbsent(invocation.getMethod(),
+                    method -> AnnotatedElementUtils.hasAnnotation(method, ReadOnlyScope.class));
+            return readOnly ? invoke(invocation) : invocation.proceed();
+        };
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return proceedReadOnly(invocation);
+        }
+        TransactionStatus status = transactionManager.getTransaction(readOnlyTransaction);
+        Object result;
+        try {
+            result = proceedReadOnly(invocation);
+        } catch (Throwable e) {
+            transactionManager.rollback(status);
+            throw e;
+        }
+        transactionManager.commit(status);
+        return result;
+    }
+
+    private Object proceedReadOnly(MethodInvocation invocation) throws Throwable {
+        Session session = em.unwrap(Session.class);
+        boolean defaultReadOnly = session.isDefaultReadOnly();
+        FlushMode flushMode = session.getHibernateFlushMode();
+        if (flushMode != FlushMode.MANUAL) {
+            session.flush();//범위 안의 조회는 flush 하지 않으므로 그 전까지의 변경을 먼저 반영
+        }
+        session.setDefaultReadOnly(true);
+        session.setHibernateFlushMode(FlushMode.MANUAL);
+        try {
+            return invocation.proceed();
+        } finally {
+            session.setDefaultReadOnly(defaultReadOnly);
+            session.setHibernateFlushMode(flushMode);
+        }
+    }
+}
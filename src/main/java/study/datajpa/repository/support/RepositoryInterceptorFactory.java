@@ -0,0 +1,12 @@
+package study.datajpa.repository.support;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.data.repository.core.RepositoryInformation;
+
+/**
+ * 스프링 데이터 리포지토리 프록시에 추가할 MethodInterceptor 를 리포지토리마다 생성한다.
+ * 빈으로 등록하면 {@link RepositoryInterceptorRegistrar} 가 모든 리포지토리 프록시에 적용한다.
+ */
+public interface RepositoryInterceptorFactory {
+    MethodInterceptor create(RepositoryInformation repositoryInformation);
+}
@@ -0,0 +1,30 @@
+package study.datajpa.repository.support;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * 리포지토리 팩토리 빈이 프록시를 만들기 전(afterPropertiesSet)에
+ * {@link RepositoryInterceptorFactory} 빈들을 RepositoryProxyPostProcessor 로 등록한다.
+ */
+public class RepositoryInterceptorRegistrar implements BeanPostProcessor {
+    private final ObjectProvider<RepositoryInterceptorFactory> interceptorFactories;
+
+    public RepositoryInterceptorRegistrar(ObjectProvider<RepositoryInterceptorFactory> interceptorFactories) {
+        this.interceptorFactories = interceptorFactories;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport) {
+            ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(factory ->
+                    factory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) ->
+                            interceptorFactories.orderedStream()
+                                    .forEach(interceptorFactory -> proxyFactory.addAdvice(interceptorFactory.create(repositoryInformation)))
+                    )
+            );
+        }
+        return bean;
+    }
+}
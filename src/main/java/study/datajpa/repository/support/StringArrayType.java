@@ -0,0 +1,87 @@
+package study.datajpa.repository.support;
+
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.type.CustomType;
+import org.hibernate.type.Type;
+import org.hibernate.usertype.UserType;
+
+import java.io.Serializable;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+
+/**
+ * String[] 을 JDBC ARRAY 파라미터 1개로 바인딩 (H2, PostgreSQL: where username = any(:names))
+ * in 절처럼 원소마다 바인드 변수를 만들지 않으므로 리스트 크기와 무관하게 SQL 이 하나다.
+ */
+public class StringArrayType implements UserType {
+    public static final Type INSTANCE = new CustomType(new StringArrayType());
+
+    @Override
+    public int[] sqlTypes() {
+        return new int[]{Types.ARRAY};
+    }
+
+    @Override
+    public Class<?> returnedClass() {
+        return String[].class;
+    }
+
+    @Override
+    public boolean equals(Object x, Object y) throws HibernateException {
+        return Arrays.equals((String[]) x, (String[]) y);
+    }
+
+    @Override
+    public int hashCode(Object x) throws HibernateException {
+        return Arrays.hashCode((String[]) x);
+    }
+
+    @Override
+    public Object nullSafeGet(ResultSet rs, String[] names, SharedSessionContractImplementor session, Object owner) throws SQLException {
+        Array array = rs.getArray(names[0]);
+        if (array == null) {
+            return null;
+        }
+        Object[] values = (Object[]) array.getArray();
+        return Arrays.copyOf(values, values.length, String[].class);
+    }
+
+    @Override
+    public void nullSafeSet(PreparedStatement st, Object value, int index, SharedSessionContractImplementor session) throws SQLException {
+        if (value == null) {
+            st.setNull(index, Types.ARRAY);
+            return;
+        }
+        st.setArray(index, st.getConnection().createArrayOf("VARCHAR", (String[]) value));
+    }
+
+    @Override
+    public Object deepCopy(Object value) throws HibernateException {
+        return value == null ? null : ((String[]) value).clone();
+    }
+
+    @Override
+    public boolean isMutable() {
+        return true;
+    }
+
+    @Override
+    public Serializable disassemble(Object value) throws HibernateException {
+        return (Serializable) deepCopy(value);
+    }
+
+    @Override
+    public Object assemble(Serializable cached, Object owner) throws HibernateException {
+        return deepCopy(cached);
+    }
+
+    @Override
+    public Object replace(Object original, Object target, Object owner) throws HibernateException {
+        return deepCopy(original);
+    }
+}
@@ -0,0 +1,131 @@
+package study.datajpa.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.web.ConnectionPermitTimeoutException;
+import study.datajpa.web.ConnectionPermits;
+import study.datajpa.web.InvalidRequestException;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 여러 회원 조회(GET /members?ids=): id 목록을 chunkSize 개씩 나눠 in 쿼리로 조회한다.
+ * chunk 는 chunk-threads 개 스레드에서 병렬로 조회하고(ConnectionPermits 안에서), 모든 chunk 가 끝나면 요청한 id 순서대로
+ * JSON 배열로 응답에 쓴다. 없는 id 는 생략, 중복 id 는 요청한 만큼 쓴다.
+ * 어느 chunk 든 실패하면(대기열 초과 503 등) 응답을 쓰기 전에 예외를 던지고 남은 chunk 는 취소한다. (잘린 200 응답 방지)
+ *  datajpa.lookup.ids-chunk-size: in 쿼리 한번의 id 수
+ *  datajpa.lookup.max-ids: 요청 한번의 최대 id 수, 초과하면 400
+ *  datajpa.lookup.chunk-threads: chunk 조회 스레드 수, 대기열(chunk-queue-capacity)을 넘으면 503
+ */
+@Service
+public class MemberBulkLookupService implements DisposableBean {
+    private final MemberQueryService memberQueryService;
+    private final ConnectionPermits connectionPermits;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxIds;
+    private final ExecutorService executor;
+
+    public MemberBulkLookupService(MemberQueryService memberQueryService,
+                                   ConnectionPermits connectionPermits,
+                                   ObjectMapper objectMapper,
+                                   @Value("${datajpa.lookup.ids-chunk-size:500}") int chunkSize,
+                                   @Value("${datajpa.lookup.max-ids:5000}") int maxIds,
+                                   @Value("${datajpa.lookup.chunk-threads:4}") int threads,
+                                   @Value("${datajpa.lookup.chunk-queue-capacity:1000}") int queueCapacity) {
+        this.memberQueryService = memberQueryService;
+        this.connectionPermits = connectionPermits;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxIds = maxIds;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("member-chunk-"));
+    }
+
+    public long write(List<Long> ids, Writer writer) throws IOException {
+        if (ids.size() > maxIds) {
+            throw new InvalidRequestException("too many ids: " + ids.size() + " > " + maxIds);
+        }
+        //응답을 쓰기 전에 모든 chunk 를 시작
+        List<List<Long>> chunks = new ArrayList<>();
+        List<CompletableFuture<Map<Long, MemberDto>>> results = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            chunks.add(chunk);
+            results.add(submit(new ArrayList<>(new LinkedHashSet<>(chunk))));
+        }
+        joinAll(results);
+
+        SequenceWriter out = objectMapper.writer().writeValuesAsArray(writer);
+        long count = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            Map<Long, MemberDto> members = results.get(i).join();
+            for (Long id : chunks.get(i)) {
+                MemberDto member = members.get(id);
+                if (member != null) {
+                    out.write(member);
+                    count++;
+                }
+            }
+        }
+        out.close();
+        return count;
+    }
+
+    //모든 chunk 를 기다리되, 하나라도 실패하면 바로 나머지를 취소하고 실패 (아직 시작하지 않은 chunk 는 조회하지 않음)
+    private void joinAll(List<CompletableFuture<Map<Long, MemberDto>>> results) {
+        CompletableFuture<Void> all = CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0]));
+        results.forEach(result -> result.whenComplete((members, e) -> {
+            if (e != null) {
+                all.completeExceptionally(e);
+            }
+        }));
+        try {
+            join(all);
+        } catch (RuntimeException e) {
+            results.forEach(result -> result.cancel(false));
+            throw e;
+        }
+    }
+
+    private CompletableFuture<Map<Long, MemberDto>> submit(List<Long> ids) {
+        try {
+            return CompletableFuture.supplyAsync(() -> connectionPermits.call(() -> memberQueryService.findMemberDtosById(ids)), executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new ConnectionPermitTimeoutException("member chunk queue is full"));
+        }
+    }
+
+    private void join(CompletableFuture<Void> result) {
+        try {
+            result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,85 @@
+package study.datajpa.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.web.InvalidRequestException;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+public enum MemberExportFormat {
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final String contentType;
+
+    MemberExportFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public static MemberExportFormat from(String format) {
+        return Arrays.stream(values())
+                .filter(value -> value.name().equalsIgnoreCase(format))
+                .findAny()
+                .orElseThrow(() -> new InvalidRequestException("unsupported export format: " + format));
+    }
+
+    //한 row 씩 바로 써내려가는 writer, 전체 결과를 메모리에 모으지 않는다.
+    public RowWriter open(Writer writer, ObjectMapper objectMapper) throws IOException {
+        if (this == NDJSON) {
+            SequenceWriter sequenceWriter = objectMapper.writer()
+                    .withRootValueSeparator("\n")
+                    .writeValues(writer);
+            return new RowWriter() {
+                @Override
+                public void write(MemberDto member) throws IOException {
+                    sequenceWriter.write(member);
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    sequenceWriter.flush();
+                }
+            };
+        }
+        writer.write("id,username,teamName\n");
+        return new RowWriter() {
+            @Override
+            public void write(MemberDto member) throws IOException {
+                writer.write(String.valueOf(member.getId()));
+                writer.write(',');
+                writer.write(csv(member.getUsername()));
+                writer.write(',');
+                writer.write(csv(member.getTeamName()));
+                writer.write('\n');
+            }
+
+            @Override
+            public void flush() throws IOException {
+                writer.flush();
+            }
+        };
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    public interface RowWriter {
+        void write(MemberDto member) throws IOException;
+
+        void flush() throws IOException;
+    }
+}
@@ -0,0 +1,53 @@
+package study.datajpa.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.MemberRepository;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 전체 회원 export; 커서로 읽은 row 를 바로 응답에 쓰므로 회원 수와 무관하게 heap 사용량이 일정하다.
+ *  datajpa.export.fetch-size: JDBC fetch size
+ *  datajpa.export.clear-interval: 영속성 컨텍스트 clear, 응답 flush 주기(row 수)
+ */
+@Service
+public class MemberExportService {
+    private final MemberRepository memberRepository;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+    private final int clearInterval;
+
+    public MemberExportService(MemberRepository memberRepository,
+                               ObjectMapper objectMapper,
+                               @Value("${datajpa.export.fetch-size:500}") int fetchSize,
+                               @Value("${datajpa.export.clear-interval:1000}") int clearInterval) {
+        this.memberRepository = memberRepository;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+        this.clearInterval = clearInterval;
+    }
+
+    @Transactional(readOnly = true)//스트림은 트랜잭션(커넥션)이 유지되는 동안만 읽을 수 있다.
+    public long export(MemberExportFormat format, Writer writer) throws IOException {
+        MemberExportFormat.RowWriter rowWriter = format.open(writer, objectMapper);
+        long count = 0;
+        try (Stream<MemberDto> members = memberRepository.streamMemberDtos(fetchSize, clearInterval)) {
+            Iterator<MemberDto> iterator = members.iterator();
+            while (iterator.hasNext()) {
+                rowWriter.write(iterator.next());
+                if (++count % clearInterval == 0) {
+                    rowWriter.flush();
+                }
+            }
+        }
+        rowWriter.flush();
+        return count;
+    }
+}
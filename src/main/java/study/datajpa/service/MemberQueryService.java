@@ -0,0 +1,69 @@
+package study.datajpa.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.count.TotalCountStrategy;
+import study.datajpa.repository.projection.MemberDtoVersion;
+import study.datajpa.repository.projection.MemberVersion;
+import study.datajpa.repository.support.ReadOnlyScope;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * MemberController 조회; RequestExecutor 가 요청 스레드가 아닌 스레드에서 실행할 수 있으므로
+ * 요청 스레드의 영속성 컨텍스트(OSIV)에 기대지 않고 읽기 전용 트랜잭션 안에서 값, DTO 로 변환해서 반환한다.
+ */
+@Service
+@ReadOnlyScope
+@RequiredArgsConstructor
+public class MemberQueryService {
+    private final MemberRepository memberRepository;
+    private final TotalCountStrategy countStrategy;//datajpa.paging.count-strategy
+
+    //MicroBatcher: id 목록을 in 쿼리 한번으로 조회, 없는 id 는 결과에 없음
+    public Map<Long, Member> findMembersById(List<Long> ids) {
+        return memberRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Member::getId, Function.identity()));
+    }
+
+    //GET /members?ids= chunk 조회: 팀은 default_batch_fetch_size 로 in 쿼리
+    public Map<Long, MemberDto> findMemberDtosById(List<Long> ids) {
+        return memberRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Member::getId, member -> MemberDto.builder()
+                        .member(member)
+                        .build()));
+    }
+
+    //회원 + 팀 fetch join 목록: 회원, 팀 모두 스냅샷 없이 읽기 전용으로 로딩 후 DTO 로 변환
+    public List<MemberDto> findMemberDtosWithTeam() {
+        return memberRepository.findMembersFetchJoin().stream()
+                .map(member -> MemberDto.builder()
+                        .member(member)
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    //MicroBatcher: GET /members/{id} 조건부 조회 검사값, 없는 id 는 결과에 없음
+    public Map<Long, MemberVersion> findMemberVersionsById(List<Long> ids) {
+        return memberRepository.findVersionsByIdIn(ids).stream()
+                .collect(Collectors.toMap(MemberVersion::getId, Function.identity()));
+    }
+
+    //GET /members 조건부 조회 검사값: 페이지의 버전 컬럼, count
+    public Page<MemberDtoVersion> findMemberDtoVersions(Pageable pageable) {
+        return memberRepository.findMemberDtoVersions(pageable, countStrategy);
+    }
+
+    //엔티티 조회 후 변환하지 않고 DTO 로 바로 조회 (팀 이름은 조인), count 는 검사값 조회에서 구한 totalElements
+    public Page<MemberDto> findMemberDtos(Pageable pageable, long totalElements) {
+        return memberRepository.findMemberDtos(null, pageable, (query, exactCount) -> totalElements);
+    }
+}
@@ -0,0 +1,10 @@
+package study.datajpa.web;
+
+//DB 작업 허용 대기 시간 초과, 실행 대기열 초과: 503
+public class ConnectionPermitTimeoutException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public ConnectionPermitTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,48 @@
+package study.datajpa.web;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * DB 작업을 동시에 permits 개까지만 실행한다. (permits = 커넥션 풀 크기)
+ * 커넥션 풀이 고갈되면 요청마다 커넥션 풀에서 connectionTimeout(30s) 동안 기다리다 실패하므로,
+ * 그 전에 timeout 동안만 기다리고 ConnectionPermitTimeoutException(503) 으로 빨리 실패한다.
+ */
+public class ConnectionPermits {
+    private final Semaphore semaphore;
+    private final Duration timeout;
+
+    public ConnectionPermits(int permits, Duration timeout) {
+        if (permits < 1) {
+            throw new IllegalArgumentException("permits must be greater than 0");
+        }
+        this.semaphore = new Semaphore(permits, true);
+        this.timeout = timeout;
+    }
+
+    public <T> T call(Supplier<T> supplier) {
+        acquire();
+        try {
+            return supplier.get();
+        } finally {
+            semaphore.release();
+        }
+    }
+
+    public int availablePermits() {
+        return semaphore.availablePermits();
+    }
+
+    private void acquire() {
+        try {
+            if (!semaphore.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new ConnectionPermitTimeoutException("no connection permit within " + timeout.toMillis() + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConnectionPermitTimeoutException("interrupted while waiting for a connection permit");
+        }
+    }
+}
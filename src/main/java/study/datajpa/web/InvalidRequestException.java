@@ -0,0 +1,15 @@
+package study.datajpa.web;
+
+//잘못된 요청 파라미터(keyset cursor, export format, ids 개수 등): 400
+//컨트롤러는 이 예외만 400 으로 응답하고, 그 외 IllegalArgumentException 은 서버 오류로 둔다.
+public class InvalidRequestException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+
+    public InvalidRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,33 @@
+package study.datajpa.web;
+
+import org.springframework.core.convert.converter.Converter;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.batch.MicroBatcher;
+
+import java.util.concurrent.CompletionException;
+
+/**
+ * @PathVariable("id") Member 바인딩: DomainClassConverter(요청마다 findById) 대신 MicroBatcher 로 모아서 조회
+ * 다른 스레드의 영속성 컨텍스트에서 읽기 전용으로 조회한 준영속 엔티티이고, 같은 배치의 호출은 같은 인스턴스를 받는다.
+ *  - 지연 로딩(getTeam() 등)은 LazyInitializationException, 수정하면 다른 요청에도 보인다.
+ * 그래서 전역 ConversionService 에 등록하지 않고, 이 계약을 지키는 핸들러에서만 사용한다. (MemberController @InitBinder)
+ */
+public class MemberIdConverter implements Converter<String, Member> {
+    private final MicroBatcher<Long, Member> memberBatcher;
+
+    public MemberIdConverter(MicroBatcher<Long, Member> memberBatcher) {
+        this.memberBatcher = memberBatcher;
+    }
+
+    @Override
+    public Member convert(String source) {
+        try {
+            return memberBatcher.load(Long.valueOf(source)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
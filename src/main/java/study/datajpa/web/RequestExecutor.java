@@ -0,0 +1,52 @@
+package study.datajpa.web;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * 리포지토리 호출 실행 방식
+ *  - executor 없음: 요청 스레드에서 바로 실행하고 완료된 CompletableFuture 반환, 허용(ConnectionPermits)을 받지 않는다.
+ *    동시 실행 수는 톰캣 스레드 수, 대기는 커넥션 풀(connection-timeout)이 맡는다.
+ *  - executor: executor 에서 실행, 요청 스레드는 결과를 기다리지 않고 반환 (서블릿 비동기 처리)
+ *    ConnectionPermits 로 동시에 실행하는 DB 작업 수를 커넥션 수 이하로 제한한다.
+ * 컨트롤러 빈(requestExecutor)은 datajpa.web.execution-mode 로 정한다. (ExecutionConfig)
+ *  - platform: executor 없음 / async: 커넥션 수만큼의 스레드 / virtual: 작업마다 가상 스레드 (Java 21 이상)
+ *  - GET /members/{id}, /members/domain/{id} 는 모드와 관계없이 MicroBatcher 의 memberBatchExecutor(member-batch- 스레드)에서 조회한다. (LookupConfig)
+ * 다른 스레드에서 실행될 수 있으므로 요청 스레드의 영속성 컨텍스트(OSIV)에 기대지 않는다.
+ * 지연 로딩 등은 작업 안(트랜잭션, @ReadOnlyScope)에서 끝내고 DTO 나 값을 반환한다.
+ */
+public class RequestExecutor implements DisposableBean {
+    private final ConnectionPermits permits;
+    private final ExecutorService executor;//null 이면 요청 스레드에서 허용 없이 실행
+
+    public RequestExecutor(ConnectionPermits permits, ExecutorService executor) {
+        this.permits = permits;
+        this.executor = executor;
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        if (executor == null) {
+            try {
+                return CompletableFuture.completedFuture(task.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> permits.call(task), executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new ConnectionPermitTimeoutException("request queue is full"));
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package study.datajpa.web;
+
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import study.datajpa.dto.MemberUsernameDto;
+import study.datajpa.repository.projection.MemberDtoVersion;
+import study.datajpa.repository.projection.MemberVersion;
+
+import javax.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * HTTP 조건부 조회(If-None-Match, If-Modified-Since) 검사값
+ *  - 회원: ETag = id, @Version / Last-Modified = lastModifiedDate
+ *  - 회원 페이지: ETag = totalElements, 페이지의 (id, 회원 버전, 팀 버전) 해시
+ *    Last-Modified 는 없음: 다른 행이 삭제되어 페이지로 밀려 들어온 오래된 행은 수정 일시로 알 수 없다.
+ * 벌크 update 는 lastModifiedDate 를 바꾸지 않지만 versioned 로 버전은 올리므로 ETag 가 우선한다.
+ * 검사값(버전 컬럼)만 먼저 조회해서 요청 조건과 같으면 본문을 조회하지 않고 304 (notModified),
+ * 다르면 본문을 조회해서 200 (ok) 으로 응답한다.
+ */
+public class ResourceVersion {
+    private final String etag;
+    private final long lastModified;//없으면 -1
+
+    private ResourceVersion(String etag, long lastModified) {
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    public static ResourceVersion of(MemberVersion member) {
+        return member(member.getId(), member.getVersion(), member.getLastModifiedDate());
+    }
+
+    public static ResourceVersion of(MemberUsernameDto member) {
+        return member(member.getId(), member.getVersion(), member.getLastModifiedDate());
+    }
+
+    public static ResourceVersion of(Page<MemberDtoVersion> page) {
+        StringBuilder source = new StringBuilder().append(page.getTotalElements());
+        for (MemberDtoVersion member : page) {
+            source.append(';').append(member.getId())
+                    .append(',').append(member.getVersion())
+                    .append(',').append(member.getTeamVersion());
+        }
+        return new ResourceVersion("\"" + DigestUtils.md5DigestAsHex(source.toString().getBytes(StandardCharsets.UTF_8)) + "\"", -1);
+    }
+
+    //조건 헤더가 없으면 검사값을 먼저 조회할 필요가 없다.
+    public static boolean isConditional(HttpServletRequest request) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
+    //요청 조건과 같으면(변경 없음) true; 응답은 바꾸지 않는다.
+    public boolean matches(HttpServletRequest request) {
+        ServletWebRequest webRequest = new ServletWebRequest(request);
+        return lastModified >= 0
+                ? webRequest.checkNotModified(etag, lastModified)
+                : webRequest.checkNotModified(etag);
+    }
+
+    //200 + ETag, Last-Modified
+    public <T> ResponseEntity<T> ok(T body) {
+        return headers(ResponseEntity.ok()).body(body);
+    }
+
+    //304 + ETag, Last-Modified, 본문 없음
+    public <T> ResponseEntity<T> notModified() {
+        return headers(ResponseEntity.status(HttpStatus.NOT_MODIFIED)).build();
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    private ResponseEntity.BodyBuilder headers(ResponseEntity.BodyBuilder response) {
+        response.eTag(etag);
+        if (lastModified >= 0) {
+            response.lastModified(lastModified);
+        }
+        return response;
+    }
+
+    private static ResourceVersion member(Long id, Long version, LocalDateTime lastModifiedDate) {
+        return new ResourceVersion("\"" + id + "-" + version + "\"", epochMillis(lastModifiedDate));
+    }
+
+    private static long epochMillis(LocalDateTime dateTime) {
+        return dateTime == null ? -1 : dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
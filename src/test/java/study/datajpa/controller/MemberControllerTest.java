@@ -1,6 +1,9 @@
 package study.datajpa.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,23 +12,42 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.context.WebApplicationContext;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberUsernameDto;
 import study.datajpa.entity.Member;
 import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.cache.SingleFlight;
+import study.datajpa.web.ConnectionPermits;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest
+@SpringBootTest(properties = "datajpa.web.permit-timeout=1s")//허용 대기 초과(503) 테스트
 @AutoConfigureMockMvc
 public class MemberControllerTest {
 
@@ -37,6 +59,12 @@ public class MemberControllerTest {
     private MemberRepository memberRepository;
     @Autowired
     private ObjectMapper om;
+    @Autowired
+    private ConnectionPermits connectionPermits;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private SingleFlight<Long, MemberUsernameDto> memberUsernameLookup;
 
     private Member member;
 
@@ -58,14 +86,108 @@ public class MemberControllerTest {
     void findMemberTest() throws Exception {
         //given
 
-        //when
-        ResultActions perform = mvc.perform(get("/members/1"));
+        //when: CompletableFuture 반환 -> 서블릿 비동기 처리
+        MvcResult started = mvc.perform(get("/members/1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions perform = mvc.perform(asyncDispatch(started));
         //then
         perform.andDo(print())
                 .andExpect(status().isOk())
                 .andExpect(content().string("username0"));
     }
 
+    @Test
+    void findMemberServiceUnavailableTest() throws Exception {
+        //given: 다른 요청이 DB 작업 허용(커넥션 수)을 모두 사용 중
+        int permits = connectionPermits.availablePermits();
+        CountDownLatch held = new CountDownLatch(permits);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService others = Executors.newFixedThreadPool(permits);
+        for (int i = 0; i < permits; i++) {
+            others.submit(() -> connectionPermits.call(() -> {
+                held.countDown();
+                try {
+                    return release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        }
+        held.await();
+
+        try {
+            //when: datajpa.web.permit-timeout 동안 기다린 후 실패
+            MvcResult started = mvc.perform(get("/members/1"))
+                    .andReturn();
+            ResultActions perform = mvc.perform(asyncDispatch(started));
+
+            //then
+            perform.andDo(print())
+                    .andExpect(status().isServiceUnavailable());
+        } finally {
+            release.countDown();
+            others.shutdown();
+        }
+    }
+
+    @Test
+    void findMemberNotModifiedTest() throws Exception {
+        //given: 처음 조회한 응답의 ETag, Last-Modified
+        MvcResult started = mvc.perform(get("/members/" + member.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MockHttpServletResponse first = mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn()
+                .getResponse();
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        memberUsernameLookup.invalidateAll();//본문 캐시 없이
+        long batches = memberBatches();
+
+        //when: 변경되지 않았으면 버전 컬럼만 조회하고 본문 없이 304
+        ResultActions ifNoneMatch = mvc.perform(asyncDispatch(mvc.perform(get("/members/" + member.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andReturn()));
+        ResultActions ifModifiedSince = mvc.perform(asyncDispatch(mvc.perform(get("/members/" + member.getId())
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, first.getHeader(HttpHeaders.LAST_MODIFIED)))
+                .andReturn()));
+
+        //then
+        ifNoneMatch.andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+        ifModifiedSince.andExpect(status().isNotModified());
+        assertThat(memberBatches()).isEqualTo(batches);//본문(회원) 조회 없음
+    }
+
+    @Test
+    void findMemberModifiedTest() throws Exception {
+        //given
+        String etag = mvc.perform(asyncDispatch(mvc.perform(get("/members/" + member.getId()))
+                        .andReturn()))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+        member.changeUsername("modified");
+        memberRepository.save(member);//@Version 증가
+
+        //when
+        MvcResult started = mvc.perform(get("/members/" + member.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions perform = mvc.perform(asyncDispatch(started));
+
+        //then
+        perform.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+
     /**
      * use {@link AutoConfigureMockMvc}
      * <p/>
@@ -75,13 +197,30 @@ public class MemberControllerTest {
     @Test
     void findDomainClassConverterMemberTest() throws Exception {
         //given
+        long batches = memberBatches();
 
         //when
         ResultActions perform = mvc.perform(get("/members/domain/1"));
-        //then
+        //then: 이 핸들러의 @PathVariable("id") Member 만 MemberIdConverter(MicroBatcher)로 조회
         perform.andDo(print())
                 .andExpect(status().isOk())
                 .andExpect(content().string("username0"));
+        assertThat(memberBatches()).isEqualTo(batches + 1);
+    }
+
+    private long invocations(String method) {
+        DistributionSummary statements = meterRegistry.find("repository.method.sql.statements")
+                .tag("repository", "MemberRepository")
+                .tag("method", method)
+                .summary();
+        return statements == null ? 0 : statements.count();
+    }
+
+    private long memberBatches() {
+        return meterRegistry.get("repository.micro.batch.size")
+                .tag("name", "member")
+                .summary()
+                .count();
     }
 
     @Test
@@ -105,12 +244,191 @@ public class MemberControllerTest {
         params.add("size", String.valueOf(size));
         params.add("sort", String.join(",", sort1, direction));
         params.add("sort", String.join(",", sort2, direction));
-        ResultActions perform = mvc.perform(get("/members")
-                .queryParams(params));
+        MvcResult started = mvc.perform(get("/members")
+                        .queryParams(params))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions perform = mvc.perform(asyncDispatch(started));
         //then
         perform.andDo(print())
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(content().json(expected));
     }
+
+    @Test
+    void findMembersNotModifiedTest() throws Exception {
+        //given
+        MvcResult started = mvc.perform(get("/members")
+                        .param("page", "0")
+                        .param("size", "5"))
+                .andReturn();
+        String etag = mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        //when
+        long bodyQueries = invocations("findMemberDtos");
+        ResultActions notModified = mvc.perform(asyncDispatch(mvc.perform(get("/members")
+                        .param("page", "0")
+                        .param("size", "5")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andReturn()));
+        long bodyQueriesAfterNotModified = invocations("findMemberDtos");
+        memberRepository.save(Member.builder().username("inserted").build());//totalElements 변경
+        ResultActions modified = mvc.perform(asyncDispatch(mvc.perform(get("/members")
+                        .param("page", "0")
+                        .param("size", "5")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andReturn()));
+
+        //then
+        notModified.andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        assertThat(bodyQueriesAfterNotModified).isEqualTo(bodyQueries);//본문(MemberDto) 조회 없음
+        modified.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+        assertThat(invocations("findMemberDtos")).isEqualTo(bodyQueries + 1);
+    }
+
+    @Test
+    void findMembersByCursorTest() throws Exception {
+        //given
+        int size = 5;
+
+        //when
+        JsonNode first = om.readTree(mvc.perform(get("/members")
+                        .param("cursor", "")
+                        .param("size", String.valueOf(size)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(size))
+                .andExpect(jsonPath("$.next").isNotEmpty())
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andReturn()
+                .getResponse()
+                .getContentAsString());
+        ResultActions perform = mvc.perform(get("/members")
+                .param("cursor", first.get("next").asText())
+                .param("size", String.valueOf(size)));
+
+        //then: 다음 페이지는 이전 페이지 마지막 (username, id) 이후부터 시작
+        JsonNode second = om.readTree(perform.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(size))
+                .andReturn()
+                .getResponse()
+                .getContentAsString());
+        JsonNode lastOfFirst = first.get("content").get(size - 1);
+        JsonNode firstOfSecond = second.get("content").get(0);
+        int usernameCompare = firstOfSecond.get("username").asText().compareTo(lastOfFirst.get("username").asText());
+        assertThat(usernameCompare > 0
+                || (usernameCompare == 0 && firstOfSecond.get("id").asLong() > lastOfFirst.get("id").asLong()))
+                .isTrue();
+    }
+
+    @Test
+    void findMembersByInvalidCursorTest() throws Exception {
+        //given
+
+        //when
+        ResultActions perform = mvc.perform(get("/members")
+                .param("cursor", "not-a-token"));
+        //then
+        perform.andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void findMembersByInvalidSizeTest() throws Exception {
+        //given
+
+        //when
+        ResultActions perform = mvc.perform(get("/members")
+                .param("cursor", "")
+                .param("size", "0"));
+        //then
+        perform.andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void findMembersByIdsTest() throws Exception {
+        //given: 요청 순서, 없는 id, 중복 id
+        long last = member.getId();//username99
+        String ids = String.join(",", String.valueOf(last), String.valueOf(last - 2), "-1",
+                String.valueOf(last - 1), String.valueOf(last));
+
+        //when
+        ResultActions perform = mvc.perform(get("/members")
+                .param("ids", ids));
+
+        //then
+        perform.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.length()").value(4))
+                .andExpect(jsonPath("$[0].username").value("username99"))
+                .andExpect(jsonPath("$[1].username").value("username97"))
+                .andExpect(jsonPath("$[2].username").value("username98"))
+                .andExpect(jsonPath("$[3].username").value("username99"));
+    }
+
+    @Test
+    void findMembersByTooManyIdsTest() throws Exception {
+        //given: datajpa.lookup.max-ids 초과
+        String ids = LongStream.rangeClosed(1, 5001)
+                .mapToObj(String::valueOf)
+                .collect(Collectors.joining(","));
+
+        //when
+        ResultActions perform = mvc.perform(get("/members")
+                .param("ids", ids));
+
+        //then
+        perform.andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportMembersNdjsonTest() throws Exception {
+        //given
+        long expected = memberRepository.count();
+
+        //when
+        ResultActions perform = mvc.perform(get("/members/export"));
+
+        //then
+        String[] lines = perform.andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString()
+                .split("\n");
+        assertThat(lines).hasSize((int) expected);
+        assertThat(om.readValue(lines[0], MemberDto.class).getUsername()).isEqualTo("username0");
+    }
+
+    @Test
+    void exportMembersCsvTest() throws Exception {
+        //given
+        long expected = memberRepository.count();
+
+        //when
+        ResultActions perform = mvc.perform(get("/members/export")
+                .param("format", "csv"));
+
+        //then
+        String[] lines = perform.andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString()
+                .split("\n");
+        assertThat(lines).hasSize((int) expected + 1);//header
+        assertThat(lines[0]).isEqualTo("id,username,teamName");
+        assertThat(lines[1]).isEqualTo("1,username0,");
+    }
 }
@@ -5,7 +5,12 @@ import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.audit.AuditStamp;
+import study.datajpa.entity.audit.AuditStampProvider;
 import study.datajpa.repository.MemberRepository;
 
 import javax.persistence.EntityManager;
@@ -23,6 +28,10 @@ public class BaseEntityTest {
     private EntityManager em;
     @Autowired
     private MemberRepository memberRepository;
+    @Autowired
+    private AuditStampProvider auditStampProvider;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
     private Logger log = getLogger(BaseEntityTest.class);
     private Member noResultMember;
@@ -83,4 +92,39 @@ public class BaseEntityTest {
         assertThat(isExistsUpdatedDate).isTrue();
     }
 
-}
\ No newline at end of file
+    @Test
+    void auditStampPerTransactionTest() {
+        //given
+        Member member1 = Member.builder().username("member1").build();
+        Member member2 = Member.builder().username("member2").build();
+
+        //when
+        memberRepository.save(member1);
+        memberRepository.save(member2);
+        member1.changeUsername("member1-1");
+        em.flush();//@PreUpdate
+
+        //then: 같은 트랜잭션이면 같은 일시, 작업자
+        assertThat(member1.getCreatedBy()).isNotNull();
+        assertThat(member2.getCreatedDate()).isEqualTo(member1.getCreatedDate());
+        assertThat(member2.getCreatedBy()).isEqualTo(member1.getCreatedBy());
+        assertThat(member1.getLastModifiedDate()).isEqualTo(member1.getCreatedDate());
+        assertThat(member1.getLastModifiedBy()).isEqualTo(member1.getCreatedBy());
+    }
+
+    @Test
+    void auditStampRequiresNewTest() {
+        //given
+        AuditStamp outer = auditStampProvider.current();
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        //when
+        AuditStamp inner = requiresNew.execute(status -> auditStampProvider.current());
+
+        //then: 새 트랜잭션은 새 값, 재개된 트랜잭션은 이전 값
+        assertThat(inner).isNotSameAs(outer);
+        assertThat(inner.getAuditor()).isNotEqualTo(outer.getAuditor());
+        assertThat(auditStampProvider.current()).isSameAs(outer);
+    }
+}
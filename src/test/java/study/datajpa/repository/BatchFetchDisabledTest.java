@@ -0,0 +1,34 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.datajpa.repository.MemberRepositoryTest.countStatementsTouchingTeams;
+
+/**
+ * default_batch_fetch_size 미적용시 비교용; {@link MemberRepositoryTest#memberBatchFetchTest()}
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.default_batch_fetch_size=1")
+@Transactional
+public class BatchFetchDisabledTest {
+    @Autowired
+    private MemberRepository memberRepository;
+    @Autowired
+    private TeamRepository teamRepository;
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    void memberNoBatchFetchTest() {
+        //given: 회원 100명, 팀 10개
+        long statementCount = countStatementsTouchingTeams(em, memberRepository, teamRepository);
+
+        //then: 페이지 조회 1 + count 1 + 팀마다 1 (N + 1)
+        assertThat(statementCount).isEqualTo(2 + 10);
+    }
+}
@@ -3,13 +3,33 @@ package study.datajpa.repository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import study.datajpa.entity.Item;
+import study.datajpa.repository.custom.ItemInsertResult;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
 public class ItemRepositoryTest {
 
     @Autowired
     private ItemRepository itemRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
     @Test
     void saveItemTest() {
@@ -19,4 +39,66 @@ public class ItemRepositoryTest {
         Item saveItem = itemRepository.save(item);
         //then
     }
+
+    @Test
+    @Transactional
+    void insertAllTest() {
+        //given
+        itemRepository.save(Item.builder().id("dup").build());
+        List<Item> items = Arrays.asList(
+                Item.builder().id("new1").build(),
+                Item.builder().id("dup").build(),
+                Item.builder().id("new2").build(),
+                Item.builder().id("new1").build());
+
+        //when
+        ItemInsertResult actual = itemRepository.insertAll(items, 3);
+
+        //then: 중복 id 는 batch 전체를 실패시키지 않고 row 단위로 보고
+        assertThat(actual.getInsertedCount()).isEqualTo(2);
+        assertThat(actual.getConflictIds()).containsExactly("dup", "new1");
+        assertThat(itemRepository.findById("new2")).isPresent();
+        assertThat(itemRepository.findById("new2").get().isNew()).isFalse();//createdDate 채워짐
+    }
+
+    //다른 트랜잭션이 커밋하기 전에 insert 한 id 를 batch 중간에 만나면 DuplicateKeyException
+    //트랜잭션 2개가 커밋하므로 테스트 트랜잭션 없이 실행하고 직접 정리한다.
+    @Test
+    void insertAllConcurrentDuplicateTest() throws Exception {
+        //given: 다른 트랜잭션이 race2 를 insert 하고 아직 커밋 전
+        CountDownLatch inserted = new CountDownLatch(1);
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        Future<?> otherTransaction = other.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update("insert into item (id, created_date) values (?, ?)", "race2", Timestamp.valueOf(LocalDateTime.now()));
+            inserted.countDown();
+            sleep(300);//이후 insertAll 의 race2 insert 는 락 대기 후 duplicate key
+        }));
+        inserted.await();
+        List<Item> items = Arrays.asList(
+                Item.builder().id("race1").build(),
+                Item.builder().id("race2").build(),
+                Item.builder().id("race3").build());
+
+        try {
+            //when
+            ItemInsertResult actual = itemRepository.insertAll(items, 3);
+            otherTransaction.get();
+
+            //then: 실패 전에 insert 된 race1 도 되돌린 후 다시 저장하므로 충돌로 보고하지 않는다.
+            assertThat(actual.getInsertedCount()).isEqualTo(2);
+            assertThat(actual.getConflictIds()).containsExactly("race2");
+            assertThat(itemRepository.findAllById(Arrays.asList("race1", "race2", "race3"))).hasSize(3);
+        } finally {
+            other.shutdown();
+            jdbcTemplate.update("delete from item where id in ('race1', 'race2', 'race3')");
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
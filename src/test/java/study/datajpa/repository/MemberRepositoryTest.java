@@ -1,6 +1,9 @@
 package study.datajpa.repository;
 
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
 import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
@@ -14,23 +17,35 @@ import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
+import study.datajpa.repository.count.CachedCountStrategy;
+import study.datajpa.repository.count.EstimatedCountStrategy;
+import study.datajpa.repository.count.ExactCountStrategy;
+import study.datajpa.repository.keyset.KeysetSlice;
+import study.datajpa.repository.keyset.MemberKeyset;
 import study.datajpa.repository.nativequery.MemberProjection;
 import study.datajpa.repository.projection.NestedClosedProjections;
 import study.datajpa.repository.projection.UsernameAndAge;
 import study.datajpa.repository.projection.UsernameAndAgeDto;
+import study.datajpa.repository.spec.MemberSearch;
 import study.datajpa.repository.spec.MemberSpec;
+import study.datajpa.web.InvalidRequestException;
 
 import javax.persistence.EntityManager;
 import javax.persistence.NonUniqueResultException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.tuple;
 
 @SpringBootTest
 @Transactional
@@ -42,6 +57,12 @@ public class MemberRepositoryTest {
     private TeamRepository teamRepository;
     @Autowired
     private EntityManager em;
+    @Autowired
+    private ExactCountStrategy exactCountStrategy;
+    @Autowired
+    private CachedCountStrategy cachedCountStrategy;
+    @Autowired
+    private EstimatedCountStrategy estimatedCountStrategy;
     private Logger log = LoggerFactory.getLogger(MemberRepositoryTest.class);
 
     private Member noResultMember;
@@ -267,6 +288,42 @@ public class MemberRepositoryTest {
         assertThat(actual).containsExactlyElementsOf(expected);
     }
 
+    @Test
+    void memberFindByNamesPaddingTest() {
+        //given
+        Statistics statistics = em.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        memberRepository.findByNames(Arrays.asList("a", "b", "c", "d", "e"));
+        long misses = statistics.getQueryPlanCacheMissCount();
+
+        //when: 5 ~ 8 개는 모두 8개로 패딩
+        memberRepository.findByNames(Arrays.asList("a", "b", "c", "d", "e", "f"));
+        memberRepository.findByNames(Arrays.asList("a", "b", "c", "d", "e", "f", "g", "h"));
+
+        //then
+        assertThat(statistics.getQueryPlanCacheMissCount()).isEqualTo(misses);
+    }
+
+    @Test
+    void memberFindByUsernamesTest() {
+        //given: threshold(500) 이하는 in 절, 초과는 배열 파라미터
+        List<String> small = Arrays.asList(memberA.getUsername(), memberB.getUsername());
+        List<String> large = IntStream.range(0, 1000)
+                .mapToObj(i -> "none" + i)
+                .collect(toList());
+        large.addAll(small);
+
+        //when
+        List<Member> actualSmall = memberRepository.findByUsernames(small);
+        List<Member> actualLarge = memberRepository.findByUsernames(large);
+
+        //then
+        assertThat(actualSmall).containsExactlyInAnyOrder(memberA, memberB);
+        assertThat(actualLarge).containsExactlyInAnyOrderElementsOf(actualSmall);
+        assertThat(memberRepository.findByUsernames(new ArrayList<>())).isEmpty();
+    }
+
     @Test
     void memberFindListByUsernameTest() {
         //given
@@ -437,6 +494,201 @@ public class MemberRepositoryTest {
         assertThat(actual).isEqualTo(expected);
     }
 
+    @Test
+    void memberFindPageByAgeCountStrategyTest() {
+        //given
+        int age = 10;
+        membersDataSave();
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "username"));
+
+        //when
+        Page<Member> expected = memberRepository.findPageByAge(age, pageRequest);
+        Page<Member> actual = memberRepository.findPageByAge(age, pageRequest, exactCountStrategy);
+        Page<Member> actualAllCount = memberRepository.findMemberAllCountBy(age, pageRequest, exactCountStrategy);
+
+        //then
+        assertThat(actual.getContent()).isEqualTo(expected.getContent());
+        assertThat(actual.getTotalElements()).isEqualTo(expected.getTotalElements());
+        assertThat(actualAllCount.getContent()).isEqualTo(expected.getContent());
+        assertThat(actualAllCount.getTotalElements()).isEqualTo(expected.getTotalElements());
+    }
+
+    @Test
+    void memberCachedCountStrategyTest() {
+        //given
+        int age = 10;
+        cachedCountStrategy.invalidateAll();
+        membersDataSave();
+        PageRequest pageRequest = PageRequest.of(0, 1);
+        long cachedCount = memberRepository.findPageByAge(age, pageRequest, cachedCountStrategy).getTotalElements();
+
+        //when: 리포지토리를 거치지 않은 변경은 ttl 동안 반영되지 않는다.
+        em.persist(Member.builder().username("notCounted").age(age).build());
+        em.flush();
+        long actualCached = memberRepository.findPageByAge(age, pageRequest, cachedCountStrategy).getTotalElements();
+
+        //when: @Modifying 쿼리 실행 시 count 캐시 무효화
+        memberRepository.bulkAgePlus(100);
+        long actualInvalidated = memberRepository.findPageByAge(age, pageRequest, cachedCountStrategy).getTotalElements();
+
+        //then
+        assertThat(actualCached).isEqualTo(cachedCount);
+        assertThat(actualInvalidated).isEqualTo(cachedCount + 1);
+    }
+
+    @Test
+    void memberEstimatedCountStrategyTest() {
+        //given
+        int age = 10;
+        membersDataSave();
+        em.flush();
+        PageRequest pageRequest = PageRequest.of(0, 1);
+
+        //when
+        Page<Member> actualWholeTable = memberRepository.findAll(pageRequest, estimatedCountStrategy);
+        Page<Member> actualFiltered = memberRepository.findPageByAge(age, pageRequest, estimatedCountStrategy);
+
+        //then: 조건이 있는 count 는 추정하지 않는다.
+        assertThat(actualWholeTable.getTotalElements()).isNotNegative();
+        assertThat(actualFiltered.getTotalElements()).isEqualTo(memberRepository.findPageByAge(age, pageRequest).getTotalElements());
+    }
+
+    @Test
+    void memberFindMemberDtosTest() {
+        //given
+        Team teamB = teamRepository.save(Team.builder().name("teamB").build());
+        teamRepository.save(teamA);
+        memberRepository.save(m1);
+        memberRepository.save(m2);
+        memberRepository.save(Member.builder().username("m3").age(0).team(teamB).build());
+        em.flush();
+        em.clear();
+        PageRequest pageRequest = PageRequest.of(0, 2, Sort.by("teamName", "username"));
+
+        //when
+        Page<MemberDto> actual = memberRepository.findMemberDtos(MemberSpec.username("m1").or(MemberSpec.username("m3")), pageRequest, exactCountStrategy);
+        Page<MemberDto> actualAll = memberRepository.findMemberDtos(null, PageRequest.of(0, 2, Sort.by("username")), exactCountStrategy);
+
+        //then: 엔티티를 영속성 컨텍스트에 올리지 않는다.
+        assertThat(actual.getContent())
+                .extracting(MemberDto::getUsername, MemberDto::getTeamName)
+                .containsExactly(tuple("m1", "teamA"), tuple("m3", "teamB"));
+        assertThat(actual.getTotalElements()).isEqualTo(2);
+        assertThat(actualAll.getContent()).extracting(MemberDto::getUsername).containsExactly("m1", "m2");
+        assertThat(actualAll.getTotalElements()).isEqualTo(memberRepository.count());
+        assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    void memberFindMembersAfterTest() {
+        //given
+        int size = 3;
+        membersDataSave();//mem1 ~ mem5, usernameA ~ usernameC
+
+        //when
+        KeysetSlice<Member> first = memberRepository.findMembersAfter(null, size);
+        KeysetSlice<Member> second = memberRepository.findMembersAfter(MemberKeyset.decode(first.getNext()), size);
+        KeysetSlice<Member> last = memberRepository.findMembersAfter(MemberKeyset.decode(second.getNext()), size);
+
+        //then
+        assertThat(first.getContent()).containsExactly(mem1, mem2, mem3);
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.getContent()).containsExactly(mem4, mem5, memberA);
+        assertThat(second.hasNext()).isTrue();
+        assertThat(last.getContent()).containsExactly(memberB, memberC);
+        assertThat(last.hasNext()).isFalse();
+        assertThat(last.getNext()).isNull();
+    }
+
+    @Test
+    void memberFindMembersAfterSameUsernameTest() {
+        //given: username 이 같으면 id 로 순서 결정
+        Member sameA1 = memberRepository.save(Member.builder().username("usernameA").age(11).build());
+        Member sameA2 = memberRepository.save(Member.builder().username("usernameA").age(12).build());
+
+        //when
+        KeysetSlice<Member> actual = memberRepository.findMembersAfter(MemberKeyset.of(memberA), 2);
+
+        //then
+        assertThat(actual.getContent()).containsExactly(sameA1, sameA2);
+        assertThat(actual.hasNext()).isTrue();
+    }
+
+    @Test
+    void memberFindMembersAfterNullUsernameTest() {
+        //given: username 이 null 인 회원은 맨 앞
+        Member null1 = memberRepository.save(Member.builder().age(1).build());
+        Member null2 = memberRepository.save(Member.builder().age(2).build());
+        Member null3 = memberRepository.save(Member.builder().age(3).build());
+
+        //when: 페이지 마지막이 null username
+        KeysetSlice<Member> first = memberRepository.findMembersAfter(null, 2);
+        KeysetSlice<Member> second = memberRepository.findMembersAfter(MemberKeyset.decode(first.getNext()), 2);
+
+        //then
+        assertThat(first.getContent()).containsExactly(null1, null2);
+        assertThat(MemberKeyset.decode(first.getNext()).getUsername()).isNull();
+        assertThat(second.getContent()).containsExactly(null3, memberA);
+        assertThat(second.hasNext()).isTrue();
+    }
+
+    @Test
+    void memberKeysetTokenTest() {
+        //given
+        MemberKeyset keyset = new MemberKeyset("user:name", 10L);
+
+        //when
+        MemberKeyset actual = MemberKeyset.decode(keyset.encode());
+
+        //then
+        assertThat(actual).isEqualTo(keyset);
+        assertThat(MemberKeyset.decode(new MemberKeyset(null, 10L).encode())).isEqualTo(new MemberKeyset(null, 10L));
+        assertThat(MemberKeyset.decode(new MemberKeyset("", 10L).encode())).isEqualTo(new MemberKeyset("", 10L));
+        assertThatExceptionOfType(InvalidRequestException.class)
+                .isThrownBy(() -> MemberKeyset.decode("not-a-token"));
+    }
+
+    @Test
+    void memberStreamMemberDtosTest() {
+        //given
+        Team teamA = Team.builder().name("teamA").build();
+        teamRepository.save(teamA);
+        memberA.changeTeam(teamA);
+        em.flush();
+        List<MemberDto> expected = Arrays.asList(MemberDto.builder().member(memberA).build(),
+                MemberDto.builder().member(memberB).build(),
+                MemberDto.builder().member(memberC).build());
+
+        //when: clearInterval 마다 영속성 컨텍스트가 비워진다.
+        List<MemberDto> actual;
+        try (Stream<MemberDto> stream = memberRepository.streamMemberDtos(2, 1)) {
+            actual = stream.collect(toList());
+        }
+
+        //then
+        assertThat(actual).containsExactlyElementsOf(expected);
+        assertThat(em.contains(memberA)).isFalse();
+    }
+
+    @Test
+    void memberSaveAllBatchedTest() {
+        //given
+        long before = memberRepository.count();
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            members.add(Member.builder().username("batch" + i).age(i).build());
+        }
+
+        //when
+        int actual = memberRepository.saveAllBatched(members, 10);
+
+        //then
+        assertThat(actual).isEqualTo(members.size());
+        assertThat(memberRepository.count()).isEqualTo(before + members.size());
+        assertThat(members).allMatch(member -> member.getId() != null);
+        assertThat(em.contains(members.get(0))).isFalse();//batch 마다 clear
+    }
+
     @Test
     void memberBulkAgePlusTest() {
         //given
@@ -465,6 +717,25 @@ public class MemberRepositoryTest {
         assertThat(updatedCount).isEqualTo(3);
     }
 
+    @Test
+    void memberBulkAgePlusEvictAffectedTest() {
+        //given: usernameA(10), usernameB(20), usernameC(30) 관리 중
+        Team team = teamRepository.save(teamA);
+        em.flush();
+
+        //when
+        memberRepository.bulkAgePlus(20);
+
+        //then: 조건에 맞는 회원만 준영속, 나머지는 그대로 관리 상태
+        assertThat(em.contains(savedMemberA)).isTrue();
+        assertThat(em.contains(savedMemberB)).isFalse();
+        assertThat(em.contains(savedMemberC)).isFalse();
+        assertThat(em.contains(team)).isTrue();
+        assertThat(memberRepository.findById(savedMemberC.getId()).orElseThrow().getAge()).isEqualTo(31);
+        //update versioned: 벌크 수정도 version 을 올려서 동시에 수정 중인 낙관적 락 트랜잭션이 충돌로 감지
+        assertThat(memberRepository.findById(savedMemberC.getId()).orElseThrow().getVersion()).isEqualTo(savedMemberC.getVersion() + 1);
+    }
+
     @Test
     void memberFindMembersFetchJoinTest() {
         //given
@@ -566,6 +837,38 @@ public class MemberRepositoryTest {
                 });
     }
 
+    @Test
+    void memberBatchFetchTest() {
+        //given: 회원 100명, 팀 10개
+        long statementCount = countStatementsTouchingTeams(em, memberRepository, teamRepository);
+
+        //then: 페이지 조회 1 + count 1 + 팀 IN 조회 1 (batch fetch 미적용시 2 + 팀 수 10)
+        assertThat(statementCount).isEqualTo(3);
+    }
+
+    /**
+     * 회원 100명(팀 10개) 저장 후 100건 페이지를 조회해서 모든 회원의 팀 이름을 읽는 동안 실행된 SQL 수
+     */
+    static long countStatementsTouchingTeams(EntityManager em, MemberRepository memberRepository, TeamRepository teamRepository) {
+        for (int i = 0; i < 10; i++) {
+            Team team = teamRepository.save(Team.builder().name("team" + i).build());
+            for (int j = 0; j < 10; j++) {
+                memberRepository.save(Member.builder().username("member" + i + j).age(j).team(team).build());
+            }
+        }
+        em.flush();
+        em.clear();
+        Statistics statistics = em.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        memberRepository.findAll(PageRequest.of(0, 100, Sort.by("id")))
+                .map(member -> MemberDto.builder().member(member).build())//team.getName(): 지연 로딩
+                .getContent();
+        return statistics.getPrepareStatementCount();
+    }
+
     private void entityGraphTestDataSet() {
         memberRepository.delete(memberA);
         memberRepository.delete(memberB);
@@ -647,6 +950,70 @@ public class MemberRepositoryTest {
         assertThat(actual).isEqualTo(expected);
     }
 
+    @Test
+    void searchTest() {
+        //given
+        Team teamA = Team.builder().name("searchTeamA").build();
+        Team teamB = Team.builder().name("searchTeamB").build();
+        em.persist(teamA);
+        em.persist(teamB);
+
+        Member m1 = Member.builder().username("m1").age(10).team(teamA).build();
+        Member m2 = Member.builder().username("m2").age(20).team(teamA).build();
+        Member m3 = Member.builder().username("m3").age(30).team(teamB).build();
+        em.persist(m1);
+        em.persist(m2);
+        em.persist(m3);
+
+        em.flush();
+        em.clear();
+
+        PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("age"));
+        List<MemberSearch> searches = Arrays.asList(
+                MemberSearch.builder().username("m1").teamName("searchTeamA").build(),
+                MemberSearch.builder().teamName("searchTeamA").ageGoe(15).build(),
+                MemberSearch.builder().teamName("searchTeamA").ageGoe(10).ageLoe(20).build(),
+                MemberSearch.builder().username("").teamName("searchTeamB").build()
+        );
+
+        //when
+        List<List<Member>> actual = searches.stream()
+                .map(search -> memberRepository.search(search, pageRequest, exactCountStrategy).getContent())
+                .collect(toList());
+
+        //then: Specification 과 같은 결과
+        assertThat(actual).containsExactly(
+                Arrays.asList(m1),
+                Arrays.asList(m2),
+                Arrays.asList(m1, m2),
+                Arrays.asList(m3)
+        );
+        for (MemberSearch search : searches) {
+            assertThat(memberRepository.findAll(search.toSpecification(), pageRequest).getContent())
+                    .isEqualTo(memberRepository.search(search, pageRequest, exactCountStrategy).getContent());
+        }
+    }
+
+    @Test
+    void searchQueryPlanCacheTest() {
+        //given
+        Statistics statistics = em.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        memberRepository.search(MemberSearch.builder().username("m1").teamName("teamA").build(), pageRequest, exactCountStrategy);
+        long misses = statistics.getQueryPlanCacheMissCount();
+        long hits = statistics.getQueryPlanCacheHitCount();
+
+        //when: 같은 조건 조합, 다른 값
+        Page<Member> actual = memberRepository.search(MemberSearch.builder().username("m2").teamName("teamB").build(), pageRequest, exactCountStrategy);
+
+        //then: JPQL 이 같으므로 쿼리 플랜을 다시 만들지 않음
+        assertThat(actual.getContent()).isEmpty();
+        assertThat(statistics.getQueryPlanCacheMissCount()).isEqualTo(misses);
+        assertThat(statistics.getQueryPlanCacheHitCount()).isGreaterThan(hits);
+    }
+
     @Test
     void queryByExampleTest() {
         //given
@@ -736,6 +1103,32 @@ public class MemberRepositoryTest {
         assertThat(actual.get(0).getUsername()).isEqualTo(m1.getUsername());
     }
 
+    @Test
+    void tupleProjectionsTest() {
+        //given
+        em.persist(teamA);
+        em.persist(m1);
+        Member noTeamMember = Member.builder().username("m1").age(5).build();
+        em.persist(noTeamMember);
+        em.flush();
+        em.clear();
+
+        //when
+        List<UsernameAndAge> actual = memberRepository.findTupleProjectionsByUsername(m1.getUsername(), UsernameAndAge.class);
+        List<NestedClosedProjections> actualNested = memberRepository.findTupleProjectionsByUsername(m1.getUsername(), NestedClosedProjections.class);
+        List<MemberProjection> actualFlattened = memberRepository.findTupleProjectionsByUsername(m1.getUsername(), MemberProjection.class);
+
+        //then: 팀이 없으면 중첩 프로젝션은 null, 엔티티는 로딩하지 않는다.
+        assertThat(actual).extracting(UsernameAndAge::getUsername, UsernameAndAge::getAge)
+                .containsExactlyInAnyOrder(tuple("m1", 0), tuple("m1", 5));
+        assertThat(actualNested).extracting(projection -> projection.getTeam() == null ? null : projection.getTeam().getName())
+                .containsExactlyInAnyOrder("teamA", null);
+        assertThat(actualFlattened).extracting(MemberProjection::getId, MemberProjection::getTeamName)
+                .containsExactlyInAnyOrder(tuple(m1.getId(), "teamA"), tuple(noTeamMember.getId(), null));
+        assertThat(Proxy.isProxyClass(actual.get(0).getClass())).isFalse();//JDK 동적 프록시가 아닌 생성 클래스
+        assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
     @Test
     void nativeQueryTest() {
         //given
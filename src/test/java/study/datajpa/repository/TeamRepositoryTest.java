@@ -1,12 +1,18 @@
 package study.datajpa.repository;
 
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
 
+import javax.persistence.EntityManager;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -19,6 +25,10 @@ import static org.assertj.core.api.Assertions.assertThat;
 public class TeamRepositoryTest {
     @Autowired
     private TeamRepository teamRepository;
+    @Autowired
+    private MemberRepository memberRepository;
+    @Autowired
+    private EntityManager em;
 
     private Team noTeam;
     private Team teamA;
@@ -103,4 +113,26 @@ public class TeamRepositoryTest {
         //then
         assertThat(actual).isEqualTo(expected);
     }
+
+    @Test
+    void teamFindTeamsWithMembersTest() {
+        //given
+        memberRepository.save(Member.builder().username("memberA1").team(teamA).build());
+        memberRepository.save(Member.builder().username("memberB1").team(teamB).build());
+        memberRepository.save(Member.builder().username("memberB2").team(teamB).build());
+        em.flush();
+        em.clear();
+
+        //when
+        Page<Team> actual = teamRepository.findTeamsWithMembers(PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "name")));
+
+        //then
+        assertThat(actual.getContent()).containsExactly(teamC, teamB);
+        assertThat(actual.getTotalElements()).isEqualTo(3);
+        assertThat(actual.getContent()).allMatch(team -> Hibernate.isInitialized(team.getMembers()));
+        assertThat(actual.getContent().get(0).getMembers()).isEmpty();
+        assertThat(actual.getContent().get(1).getMembers())
+                .extracting(Member::getUsername)
+                .containsExactlyInAnyOrder("memberB1", "memberB2");
+    }
 }
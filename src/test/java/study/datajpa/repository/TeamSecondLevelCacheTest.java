@@ -0,0 +1,69 @@
+package study.datajpa.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//2차 캐시에는 커밋된 엔티티만 저장되고, 커밋 이후 시작한 트랜잭션에서만 읽을 수 있으므로 테스트 트랜잭션(@Transactional) 없이 실행하고 직접 정리한다.
+@SpringBootTest
+public class TeamSecondLevelCacheTest {
+    @Autowired
+    private TeamRepository teamRepository;
+    @Autowired
+    private MemberRepository memberRepository;
+    @Autowired
+    private EntityManagerFactory emf;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Team team;
+    private Member member;
+
+    @BeforeEach
+    void setUp() {
+        team = teamRepository.save(Team.builder().name("cachedTeam").build());//커밋 시 2차 캐시에 저장
+        member = memberRepository.save(Member.builder().username("cachedMember").team(team).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        memberRepository.deleteById(member.getId());
+        teamRepository.deleteById(team.getId());
+    }
+
+    @Test
+    void teamSecondLevelCacheTest() {
+        //given
+        CacheRegionStatistics teamRegion = emf.unwrap(SessionFactory.class)
+                .getStatistics()
+                .getDomainDataRegionStatistics("team");
+        long hitCount = teamRegion.getHitCount();
+
+        //when: 회원의 지연 로딩 team 을 DB 대신 2차 캐시에서 조회
+        String actual = new TransactionTemplate(transactionManager).execute(status ->
+                memberRepository.findById(member.getId()).orElseThrow().getTeam().getName());
+
+        //then
+        assertThat(actual).isEqualTo(team.getName());
+        assertThat(teamRegion.getHitCount()).isEqualTo(hitCount + 1);
+        assertThat(meterRegistry.find("hibernate.second.level.cache.requests")
+                .tags("region", "team", "result", "hit")
+                .functionCounter())
+                .isNotNull();
+    }
+}
@@ -0,0 +1,150 @@
+package study.datajpa.repository.batch;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.web.ConnectionPermits;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//MicroBatcher 는 다른 스레드에서 조회하므로 테스트 트랜잭션 없이 저장하고 직접 정리한다.
+@SpringBootTest
+public class MicroBatcherTest {
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private MemberRepository memberRepository;
+    @Autowired
+    private MicroBatcher<Long, Member> memberBatcher;
+    @Autowired
+    private ConnectionPermits connectionPermits;
+
+    @Test
+    void batchWithinWindowTest() {
+        //given
+        List<List<Long>> calls = new ArrayList<>();
+        MicroBatcher<Long, String> batcher = batcher("window", Duration.ofMillis(50), 100, calls);
+
+        //when: window 안의 조회 (중복 id 포함)
+        CompletableFuture<String> first = batcher.load(1L);
+        CompletableFuture<String> second = batcher.load(2L);
+        CompletableFuture<String> duplicated = batcher.load(1L);
+        CompletableFuture<String> missing = batcher.load(-1L);
+
+        //then: 중복을 제거한 id 로 한번 조회
+        assertThat(first.join()).isEqualTo("member1");
+        assertThat(second.join()).isEqualTo("member2");
+        assertThat(duplicated.join()).isEqualTo("member1");
+        assertThat(missing.join()).isNull();
+        assertThat(calls).containsExactly(List.of(1L, 2L, -1L));
+        batcher.destroy();
+    }
+
+    @Test
+    void maxBatchSizeTest() {
+        //given: window 가 길어도
+        List<List<Long>> calls = new ArrayList<>();
+        MicroBatcher<Long, String> batcher = batcher("size", Duration.ofMinutes(1), 2, calls);
+
+        //when
+        CompletableFuture<String> first = batcher.load(1L);
+        CompletableFuture<String> second = batcher.load(2L);
+
+        //then: batchSize 가 모이면 바로 조회
+        assertThat(first).isCompletedWithValue("member1");
+        assertThat(second).isCompletedWithValue("member2");
+        assertThat(calls).containsExactly(List.of(1L, 2L));
+        batcher.destroy();
+    }
+
+    @Test
+    void memberBatcherTest() {
+        //given
+        List<Member> members = memberRepository.saveAll(List.of(
+                Member.builder().username("batch1").build(),
+                Member.builder().username("batch2").build(),
+                Member.builder().username("batch3").build()));
+
+        try {
+            //when
+            List<CompletableFuture<Member>> loads = members.stream()
+                    .map(member -> memberBatcher.load(member.getId()))
+                    .collect(Collectors.toList());
+
+            //then
+            assertThat(loads.stream().map(CompletableFuture::join).map(Member::getUsername))
+                    .containsExactly("batch1", "batch2", "batch3");
+        } finally {
+            memberRepository.deleteAllInBatch(members);
+        }
+    }
+
+    @Test
+    void memberBatcherWindowsInFlightTest() throws Exception {
+        //given: 다른 요청이 DB 작업 허용을 모두 사용 중이라 첫 window 의 조회가 끝나지 않는다.
+        Member member = memberRepository.save(Member.builder().username("inFlight").build());
+        DistributionSummary batchSizes = meterRegistry.get("repository.micro.batch.size").tag("name", "member").summary();
+        long before = batchSizes.count();
+        int permits = connectionPermits.availablePermits();
+        CountDownLatch held = new CountDownLatch(permits);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService others = Executors.newFixedThreadPool(permits);
+        for (int i = 0; i < permits; i++) {
+            others.submit(() -> connectionPermits.call(() -> {
+                held.countDown();
+                try {
+                    return release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        }
+        held.await();
+
+        try {
+            //when: 첫 window 조회가 진행 중일 때 다음 window
+            CompletableFuture<Member> first = memberBatcher.load(member.getId());
+            Thread.sleep(50);
+            CompletableFuture<Member> second = memberBatcher.load(member.getId());
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(500);
+            while (batchSizes.count() < before + 2 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+
+            //then: 타이머 스레드가 첫 조회를 기다리지 않으므로 두 window 모두 조회 시작
+            assertThat(batchSizes.count()).isEqualTo(before + 2);
+            assertThat(first).isNotDone();
+            release.countDown();
+            assertThat(first.join().getUsername()).isEqualTo("inFlight");
+            assertThat(second.join().getUsername()).isEqualTo("inFlight");
+        } finally {
+            release.countDown();
+            others.shutdown();
+            memberRepository.delete(member);
+        }
+    }
+
+    private MicroBatcher<Long, String> batcher(String name, Duration window, int batchSize, List<List<Long>> calls) {
+        return new MicroBatcher<>(name, window, batchSize, ids -> {
+            calls.add(ids);
+            return CompletableFuture.completedFuture(ids.stream()
+                    .filter(id -> id > 0)
+                    .collect(Collectors.toMap(Function.identity(), id -> "member" + id)));
+        }, meterRegistry);
+    }
+}
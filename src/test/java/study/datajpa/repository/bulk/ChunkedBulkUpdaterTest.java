@@ -0,0 +1,157 @@
+package study.datajpa.repository.bulk;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.count.CachedCountStrategy;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//청크마다 별도 트랜잭션으로 커밋되므로 테스트 트랜잭션(@Transactional) 없이 실행하고 직접 정리한다.
+@SpringBootTest
+public class ChunkedBulkUpdaterTest {
+    @Autowired
+    private MemberRepository memberRepository;
+    @Autowired
+    private ChunkedBulkUpdater chunkedBulkUpdater;
+    @Autowired
+    private EntityManager em;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private CachedCountStrategy cachedCountStrategy;
+
+    private TransactionTemplate transaction;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        List<Member> members = new ArrayList<>();
+        for (int age = 0; age < 10; age++) {
+            members.add(Member.builder().username("chunk" + age).age(age).build());
+        }
+        memberRepository.saveAll(members);
+    }
+
+    @AfterEach
+    void tearDown() {
+        memberRepository.deleteAllInBatch();
+        transaction.executeWithoutResult(status -> em.createQuery("delete from BulkUpdateCheckpoint").executeUpdate());
+    }
+
+    @Test
+    void bulkAgePlusChunkedTest() {
+        //when
+        BulkUpdateProgress progress = memberRepository.bulkAgePlusChunked("age-plus", 5, 3);
+
+        //then
+        assertThat(progress.isCompleted()).isTrue();
+        assertThat(progress.getUpdatedRows()).isEqualTo(5);
+        assertThat(progress.getChunks()).isEqualTo(4);//id 10개 / 3
+        assertThat(ages()).containsExactly(0, 1, 2, 3, 4, 6, 7, 8, 9, 10);
+    }
+
+    @Test
+    void completedJobIsNotExecutedAgainTest() {
+        //given
+        memberRepository.bulkAgePlusChunked("age-plus", 5, 3);
+
+        //when
+        BulkUpdateProgress progress = memberRepository.bulkAgePlusChunked("age-plus", 5, 3);
+
+        //then
+        assertThat(progress.getUpdatedRows()).isEqualTo(5);
+        assertThat(progress.getUpdatedRowsInRun()).isEqualTo(0);
+        assertThat(ages()).containsExactly(0, 1, 2, 3, 4, 6, 7, 8, 9, 10);
+    }
+
+    @Test
+    void resumeTest() {
+        //given: 두번째 청크 커밋 후 실패
+        List<BulkUpdateProgress> progresses = new ArrayList<>();
+        ChunkedUpdate failing = ageUpdate("resume", progress -> {
+            progresses.add(progress);
+            if (progress.getChunks() == 2) {
+                throw new IllegalStateException("crash");
+            }
+        });
+        assertThatThrownBy(() -> chunkedBulkUpdater.execute(failing))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(ages()).containsExactly(0, 1, 2, 3, 4, 6, 6, 7, 8, 9);//id 1 ~ 6 까지만 반영
+
+        //when
+        BulkUpdateProgress progress = chunkedBulkUpdater.execute(ageUpdate("resume", progresses::add));
+
+        //then
+        assertThat(progress.isCompleted()).isTrue();
+        assertThat(progress.getUpdatedRows()).isEqualTo(5);
+        assertThat(progress.getUpdatedRowsInRun()).isEqualTo(4);
+        assertThat(progresses).extracting(BulkUpdateProgress::getChunks).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(ages()).containsExactly(0, 1, 2, 3, 4, 6, 7, 8, 9, 10);
+    }
+
+    @Test
+    void invalidateCountCacheTest() {
+        //given: 나이 10 인 회원 수 캐시
+        PageRequest pageRequest = PageRequest.of(0, 1);
+        long before = memberRepository.findPageByAge(10, pageRequest, cachedCountStrategy).getTotalElements();
+
+        //when: 청크 커밋 후 count 캐시 무효화
+        memberRepository.bulkAgePlusChunked("count-cache", 5, 3);
+        long after = memberRepository.findPageByAge(10, pageRequest, cachedCountStrategy).getTotalElements();
+
+        //then
+        assertThat(before).isZero();
+        assertThat(after).isEqualTo(1);
+    }
+
+    @Test
+    void detachOnlyUpdatedMembersTest() {
+        transaction.executeWithoutResult(status -> {
+            //given
+            Member young = memberRepository.findMemberByUsername("chunk0");
+            Member old = memberRepository.findMemberByUsername("chunk9");
+
+            //when
+            memberRepository.bulkAgePlusChunked("detach", 5, 3);
+
+            //then
+            assertThat(em.contains(young)).isTrue();
+            assertThat(em.contains(old)).isFalse();
+            assertThat(memberRepository.findMemberByUsername("chunk9").getAge()).isEqualTo(10);
+        });
+    }
+
+    private ChunkedUpdate ageUpdate(String jobName, Consumer<BulkUpdateProgress> listener) {
+        return ChunkedUpdate.builder()
+                .jobName(jobName)
+                .entityType(Member.class)
+                .set("e.age = e.age + 1")
+                .where("e.age >= :age")
+                .parameter("age", 5)
+                .chunkSize(3)
+                .listener(listener)
+                .build();
+    }
+
+    private List<Integer> ages() {
+        return memberRepository.findAll().stream()
+                .map(Member::getAge)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,212 @@
+package study.datajpa.repository.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberUsernameDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//조회 결과를 회원 저장으로 무효화하는 테스트가 있으므로 테스트 트랜잭션 없이 실행하고 직접 정리한다.
+@SpringBootTest
+public class SingleFlightTest {
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private MemberRepository memberRepository;
+    @Autowired
+    private SingleFlight<Long, MemberUsernameDto> memberUsernameLookup;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void coalesceTest() {
+        //given: 조회가 진행 중
+        SingleFlight<Long, String> singleFlight = singleFlight("coalesce", Clock.systemUTC());
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<String> query = new CompletableFuture<>();
+
+        //when
+        CompletableFuture<String> first = singleFlight.get(1L, id -> {
+            loads.incrementAndGet();
+            return query;
+        });
+        CompletableFuture<String> second = singleFlight.get(1L, id -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        query.complete("member1");
+
+        //then: 조회 한번, 같은 결과
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(first.join()).isEqualTo("member1");
+        assertThat(second.join()).isEqualTo("member1");
+        assertThat(count("coalesce", "load")).isEqualTo(1);
+        assertThat(count("coalesce", "coalesced")).isEqualTo(1);
+    }
+
+    @Test
+    void hitUntilTtlTest() {
+        //given
+        MutableClock clock = new MutableClock();
+        SingleFlight<Long, String> singleFlight = singleFlight("ttl", clock);
+        singleFlight.get(1L, id -> CompletableFuture.completedFuture("member1"));
+
+        //when
+        String cached = singleFlight.get(1L, id -> CompletableFuture.completedFuture("changed")).join();
+        clock.millis += 100;//ttl
+        String expired = singleFlight.get(1L, id -> CompletableFuture.completedFuture("changed")).join();
+
+        //then
+        assertThat(cached).isEqualTo("member1");
+        assertThat(expired).isEqualTo("changed");
+        assertThat(count("ttl", "hit")).isEqualTo(1);
+        assertThat(count("ttl", "load")).isEqualTo(2);
+    }
+
+    @Test
+    void failureIsNotCachedTest() {
+        //given
+        SingleFlight<Long, String> singleFlight = singleFlight("failure", Clock.systemUTC());
+
+        //when
+        CompletableFuture<String> failed = singleFlight.get(1L, id -> CompletableFuture.failedFuture(new IllegalStateException("db down")));
+        String retried = singleFlight.get(1L, id -> CompletableFuture.completedFuture("member1")).join();
+
+        //then
+        assertThatThrownBy(failed::join).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(retried).isEqualTo("member1");
+    }
+
+    @Test
+    void boundedTest() {
+        //given: 최대 4개, stripe 2개
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>("bounded", Member.class, Duration.ofMinutes(1), 4, 2, meterRegistry);
+
+        //when
+        for (long id = 0; id < 100; id++) {
+            singleFlight.get(id, key -> CompletableFuture.completedFuture("member" + key));
+        }
+        long hits = 0;
+        for (long id = 0; id < 100; id++) {
+            if (singleFlight.get(id, key -> CompletableFuture.completedFuture("reloaded")).join().startsWith("member")) {
+                hits++;
+            }
+        }
+
+        //then
+        assertThat(hits).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void invalidateDuringLoadTest() {
+        //given: 조회가 진행 중
+        SingleFlight<Long, String> singleFlight = singleFlight("invalidateDuringLoad", Clock.systemUTC());
+        CompletableFuture<String> query = new CompletableFuture<>();
+        CompletableFuture<String> first = singleFlight.get(1L, id -> query);
+
+        //when: 조회가 끝나기 전에 무효화
+        singleFlight.invalidateAll();
+        CompletableFuture<String> second = singleFlight.get(1L, id -> CompletableFuture.completedFuture("changed"));
+        query.complete("member1");
+
+        //then: 무효화 후 호출은 새로 조회, 늦게 끝난 무효화 전 조회 결과가 캐시를 덮어쓰지 않음
+        assertThat(first.join()).isEqualTo("member1");
+        assertThat(second.join()).isEqualTo("changed");
+        assertThat(singleFlight.get(1L, id -> CompletableFuture.completedFuture("reloaded")).join()).isEqualTo("changed");
+    }
+
+    @Test
+    void invalidateAfterCommitTest() {
+        //given
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        //when: 저장 후 커밋 전에 다른 호출이 조회해서 캐시
+        Member member = transaction.execute(status -> {
+            Member saved = memberRepository.save(Member.builder().username("singleFlight").build());
+            memberUsernameLookup.get(-1L, id -> CompletableFuture.completedFuture(usernameDto("beforeCommit"))).join();
+            return saved;
+        });
+
+        //then: 커밋 후 다시 무효화
+        try {
+            assertThat(memberUsernameLookup.get(-1L, id -> CompletableFuture.completedFuture(usernameDto("afterCommit"))).join().getUsername())
+                    .isEqualTo("afterCommit");
+        } finally {
+            memberRepository.delete(member);
+        }
+    }
+
+    @Test
+    void invalidateOnSaveTest() {
+        //given
+        memberUsernameLookup.get(-1L, id -> CompletableFuture.completedFuture(usernameDto("member1")));
+
+        //when: 회원 저장
+        Member member = memberRepository.save(Member.builder().username("singleFlight").build());
+
+        //then
+        try {
+            assertThat(memberUsernameLookup.get(-1L, id -> CompletableFuture.completedFuture(usernameDto("reloaded"))).join().getUsername())
+                    .isEqualTo("reloaded");
+        } finally {
+            memberRepository.delete(member);
+        }
+    }
+
+    private MemberUsernameDto usernameDto(String username) {
+        return MemberUsernameDto.builder()
+                .member(Member.builder().username(username).build())
+                .build();
+    }
+
+    private SingleFlight<Long, String> singleFlight(String name, Clock clock) {
+        return new SingleFlight<>(name, Member.class, Duration.ofMillis(100), 100, 4, meterRegistry, clock);
+    }
+
+    private double count(String name, String result) {
+        return meterRegistry.get("repository.single.flight")
+                .tag("name", name)
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+
+    private static class MutableClock extends Clock {
+        private long millis = 1_000;
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package study.datajpa.repository.count;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.entity.Member;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CachedCountStrategyTest {
+
+    @Test
+    void maxSizeTest() {
+        //given: 최대 2개
+        MutableClock clock = new MutableClock();
+        CachedCountStrategy strategy = new CachedCountStrategy(Duration.ofSeconds(10), 2, clock);
+        strategy.count(byAge(1), () -> 1);
+        strategy.count(byAge(2), () -> 2);
+
+        //when: 가득 차면 새 조건은 캐시하지 않는다.
+        strategy.count(byAge(3), () -> 3);
+        long notCached = strategy.count(byAge(3), () -> 30);
+        long cached = strategy.count(byAge(1), () -> 10);
+
+        //then
+        assertThat(notCached).isEqualTo(30);
+        assertThat(cached).isEqualTo(1);
+    }
+
+    @Test
+    void sweepExpiredOnWriteTest() {
+        //given
+        MutableClock clock = new MutableClock();
+        CachedCountStrategy strategy = new CachedCountStrategy(Duration.ofSeconds(10), 2, clock);
+        strategy.count(byAge(1), () -> 1);
+        strategy.count(byAge(2), () -> 2);
+
+        //when: 만료된 항목을 정리하고 새 조건을 캐시
+        clock.millis += 10_000;
+        strategy.count(byAge(3), () -> 3);
+        long cached = strategy.count(byAge(3), () -> 30);
+
+        //then
+        assertThat(cached).isEqualTo(3);
+    }
+
+    @Test
+    void invalidateAfterCommitTest() {
+        //given
+        CachedCountStrategy strategy = new CachedCountStrategy(Duration.ofSeconds(10), 10, new MutableClock());
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            //when: 변경 후 커밋 전에 다른 트랜잭션이 이전 count 를 다시 캐시
+            strategy.invalidateAfterCommit(Member.class);
+            strategy.count(byAge(1), () -> 1);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        //then: 커밋 후 다시 무효화
+        assertThat(strategy.count(byAge(1), () -> 2)).isEqualTo(2);
+    }
+
+    @Test
+    void invalidatedDuringCountTest() {
+        //given
+        CachedCountStrategy strategy = new CachedCountStrategy(Duration.ofSeconds(10), 10, new MutableClock());
+
+        //when: count 쿼리 실행 중에 무효화
+        strategy.count(byAge(1), () -> {
+            strategy.invalidate(Member.class);
+            return 1;
+        });
+
+        //then: 무효화 전 count 는 캐시하지 않는다.
+        assertThat(strategy.count(byAge(1), () -> 2)).isEqualTo(2);
+    }
+
+    private CountQuery byAge(int age) {
+        return CountQuery.of(Member.class, "byAge", age);
+    }
+
+    private static class MutableClock extends Clock {
+        private long millis = 1_000;
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package study.datajpa.repository.lock;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//시도마다 별도 트랜잭션으로 커밋되므로 테스트 트랜잭션(@Transactional) 없이 실행하고 직접 정리한다.
+@SpringBootTest
+public class OptimisticRetryExecutorTest {
+    @Autowired
+    private MemberRepository memberRepository;
+    @Autowired
+    private OptimisticRetryExecutor optimisticRetryExecutor;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private TransactionTemplate concurrent;
+    private Long memberId;
+
+    @BeforeEach
+    void setUp() {
+        concurrent = new TransactionTemplate(transactionManager);
+        concurrent.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        memberId = memberRepository.save(Member.builder().username("optimistic").age(10).build()).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        memberRepository.deleteById(memberId);
+    }
+
+    @Test
+    void retryOnConflictTest() {
+        //given
+        AtomicInteger attempts = new AtomicInteger();
+        double conflicts = conflicts("member.changeAge");
+
+        //when: 첫 시도에서 조회 후 다른 트랜잭션이 먼저 수정 -> 커밋 시 version 충돌
+        Member actual = optimisticRetryExecutor.execute("member.changeAge", () -> {
+            Member member = memberRepository.findById(memberId).orElseThrow();
+            if (attempts.incrementAndGet() == 1) {
+                changeAgeConcurrently(100);
+            }
+            member.changeAge(member.getAge() + 1);
+            return member;
+        });
+
+        //then: 두번째 시도는 다른 트랜잭션의 수정 결과를 다시 읽어서 반영
+        assertThat(attempts.get()).isEqualTo(2);
+        assertThat(actual.getAge()).isEqualTo(101);
+        assertThat(memberRepository.findById(memberId).orElseThrow().getVersion()).isEqualTo(2L);
+        assertThat(conflicts("member.changeAge")).isEqualTo(conflicts + 1);
+    }
+
+    @Test
+    void retryExhaustedTest() {
+        //given
+        OptimisticRetryExecutor executor = new OptimisticRetryExecutor(transactionManager, meterRegistry,
+                3, Duration.ZERO, Duration.ZERO, 2);
+        AtomicInteger attempts = new AtomicInteger();
+
+        //when: 매번 충돌
+        //then
+        assertThatThrownBy(() -> executor.run("member.alwaysConflict", () -> {
+            Member member = memberRepository.findById(memberId).orElseThrow();
+            attempts.incrementAndGet();
+            changeAgeConcurrently(member.getAge() + 100);
+            member.changeAge(member.getAge() + 1);
+        })).isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(attempts.get()).isEqualTo(3);
+        assertThat(meterRegistry.get("repository.optimistic.exhausted").tag("operation", "member.alwaysConflict").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void notConflictExceptionIsNotRetriedTest() {
+        //given
+        AtomicInteger attempts = new AtomicInteger();
+
+        //when
+        //then
+        assertThatThrownBy(() -> optimisticRetryExecutor.run("member.fail", () -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("fail");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(attempts.get()).isEqualTo(1);
+    }
+
+    private void changeAgeConcurrently(int age) {
+        concurrent.executeWithoutResult(status -> memberRepository.findById(memberId).orElseThrow().changeAge(age));
+    }
+
+    private double conflicts(String operation) {
+        return meterRegistry.counter("repository.optimistic.conflicts", "operation", operation).count();
+    }
+}
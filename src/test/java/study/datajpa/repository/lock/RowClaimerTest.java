@@ -0,0 +1,182 @@
+package study.datajpa.repository.lock;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//동시에 실행되는 트랜잭션끼리 락을 주고받으므로 테스트 트랜잭션(@Transactional) 없이 실행하고 직접 정리한다.
+@SpringBootTest
+public class RowClaimerTest {
+    private static final int MAX_AGE = -1;//다른 테스트 데이터와 겹치지 않는 나이
+
+    @Autowired
+    private MemberRepository memberRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private EntityManager em;
+
+    private TransactionTemplate transaction;
+    private ExecutorService executor;
+    private List<Long> memberIds;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        executor = Executors.newFixedThreadPool(8);
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            members.add(Member.builder().username("claim" + i).age(-100 - i).build());
+        }
+        memberIds = memberRepository.saveAll(members).stream()
+                .map(Member::getId)
+                .collect(toList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        memberRepository.deleteAllByIdInBatch(memberIds);
+    }
+
+    @Test
+    void skipLockedTest() throws Exception {
+        //given: 첫번째 트랜잭션이 5명을 가져가고 커밋 전
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<List<Long>> first = async(() -> transaction.execute(status -> {
+            List<Long> ids = ids(memberRepository.claimMembers(MAX_AGE, 5, ClaimMode.SKIP_LOCKED));
+            claimed.countDown();
+            await(release);
+            return ids;
+        }));
+        await(claimed);
+
+        //when
+        List<Long> second = transaction.execute(status -> ids(memberRepository.claimMembers(MAX_AGE, 5, ClaimMode.SKIP_LOCKED)));
+        release.countDown();
+
+        //then: 기다리지 않고 다음 5명
+        assertThat(first.get(10, TimeUnit.SECONDS)).containsExactlyElementsOf(memberIds.subList(0, 5));
+        assertThat(second).containsExactlyElementsOf(memberIds.subList(5, 10));
+    }
+
+    @Test
+    void skipRowLockedOutsideClaimerTest() throws Exception {
+        //given: RowClaimer 를 거치지 않은 트랜잭션이 첫번째 후보 조회 범위 안의 첫 회원을 락
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = async(() -> transaction.execute(status -> {
+            em.find(Member.class, memberIds.get(0), LockModeType.PESSIMISTIC_WRITE);
+            locked.countDown();
+            await(release);
+            return null;
+        }));
+        await(locked);
+
+        //when
+        List<Long> claimed = transaction.execute(status -> ids(memberRepository.claimMembers(MAX_AGE, 5, ClaimMode.SKIP_LOCKED)));
+        release.countDown();
+        holder.get(10, TimeUnit.SECONDS);
+
+        //then: 락이 잡힌 회원만 건너뛰고 바로 다음 회원으로 5명을 채운다
+        assertThat(claimed).containsExactlyElementsOf(memberIds.subList(1, 6));
+    }
+
+    @Test
+    void nowaitTest() throws Exception {
+        //given
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<List<Long>> first = async(() -> transaction.execute(status -> {
+            List<Long> ids = ids(memberRepository.claimMembers(MAX_AGE, 5, ClaimMode.NOWAIT));
+            claimed.countDown();
+            await(release);
+            return ids;
+        }));
+        await(claimed);
+
+        //when
+        //then: 이미 락이 잡힌 row 가 있으면 바로 실패
+        assertThatThrownBy(() -> transaction.execute(status -> memberRepository.claimMembers(MAX_AGE, 5, ClaimMode.NOWAIT)))
+                .isInstanceOf(PessimisticLockingFailureException.class);
+        release.countDown();
+        assertThat(first.get(10, TimeUnit.SECONDS)).hasSize(5);
+    }
+
+    @Test
+    void concurrentWorkersTest() throws Exception {
+        //given: 워커 8개가 3명씩 가져가서 처리(나이 변경 -> 조건에서 빠짐)
+        List<Long> processed = Collections.synchronizedList(new ArrayList<>());
+        Runnable worker = () -> {
+            while (true) {
+                List<Member> members = transaction.execute(status -> {
+                    List<Member> claimed = memberRepository.claimMembers(MAX_AGE, 3, ClaimMode.SKIP_LOCKED);
+                    claimed.forEach(member -> member.changeAge(0));
+                    return claimed;
+                });
+                if (members.isEmpty()) {
+                    return;
+                }
+                processed.addAll(ids(members));
+            }
+        };
+
+        //when
+        List<CompletableFuture<Void>> workers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            workers.add(CompletableFuture.runAsync(worker, executor));
+        }
+        CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+        //then: 모든 회원을 한번씩만 처리
+        assertThat(processed).containsExactlyInAnyOrderElementsOf(memberIds);
+    }
+
+    @Test
+    void claimWithoutTransactionTest() {
+        assertThatThrownBy(() -> memberRepository.claimMembers(MAX_AGE, 5, ClaimMode.SKIP_LOCKED))
+                .isInstanceOf(InvalidDataAccessApiUsageException.class);
+    }
+
+    private <T> CompletableFuture<T> async(Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, executor);
+    }
+
+    private static List<Long> ids(List<Member> members) {
+        return members.stream().map(Member::getId).collect(toList());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
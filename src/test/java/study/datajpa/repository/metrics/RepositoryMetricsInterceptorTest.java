@@ -0,0 +1,117 @@
+package study.datajpa.repository.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+public class RepositoryMetricsInterceptorTest {
+    @Autowired
+    private MemberRepository memberRepository;
+    @Autowired
+    private TeamRepository teamRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    void findByNamesMetricsTest() {
+        //given
+        memberRepository.save(Member.builder().username("metricsA").build());
+        memberRepository.save(Member.builder().username("metricsB").build());
+        em.flush();
+        DistributionSummary statements = summary("repository.method.sql.statements", "findByNames");
+        DistributionSummary rows = summary("repository.method.rows", "findByNames");
+        long beforeCount = statements.count();
+        double beforeStatements = statements.totalAmount();
+        double beforeRows = rows.totalAmount();
+
+        //when
+        List<Member> actual = memberRepository.findByNames(Arrays.asList("metricsA", "metricsB"));
+
+        //then
+        assertThat(statements.count()).isEqualTo(beforeCount + 1);
+        assertThat(statements.totalAmount()).isEqualTo(beforeStatements + 1);
+        assertThat(rows.totalAmount()).isEqualTo(beforeRows + actual.size());
+        assertThat(meterRegistry.find("repository.method.jdbc.time")
+                .tags("repository", "MemberRepository", "method", "findByNames")
+                .timer())
+                .extracting(Timer::count)
+                .isEqualTo(beforeCount + 1);
+    }
+
+    @Test
+    void entityGraphMetricsTest() {
+        //given
+        Team team = teamRepository.save(Team.builder().name("team").build());
+        memberRepository.save(Member.builder().username("metricsA").team(team).build());
+        em.flush();
+        em.clear();
+        DistributionSummary statements = summary("repository.method.sql.statements", "findMembersEntityGraph");
+        double before = statements.totalAmount();
+
+        //when: fetch join 1번으로 team 까지 조회
+        memberRepository.findMembersEntityGraph()
+                .forEach(member -> member.getTeam().getName());
+
+        //then
+        assertThat(statements.totalAmount()).isEqualTo(before + 1);
+    }
+
+    @Test
+    void lockWaitMetricsTest() {
+        //given
+        memberRepository.save(Member.builder().username("metricsA").build());
+        em.flush();
+        Timer lockWait = Timer.builder("repository.lock.wait")
+                .tags("repository", "MemberRepository", "method", "findLockByUsername", "mode", "PESSIMISTIC_WRITE")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        long before = lockWait.count();
+
+        //when
+        memberRepository.findLockByUsername("metricsA");
+        memberRepository.findByUsername("metricsA");
+
+        //then: @Lock 메서드만 기록
+        assertThat(lockWait.count()).isEqualTo(before + 1);
+        assertThat(meterRegistry.find("repository.lock.wait").tag("method", "findByUsername").timer()).isNull();
+    }
+
+    @Test
+    void queryPlanCacheMetricsTest() {
+        //when
+        memberRepository.findByNames(Arrays.asList("metricsA", "metricsB"));
+
+        //then
+        assertThat(meterRegistry.get("hibernate.query.plan.cache.max.size").tag("cache", "query").gauge().value())
+                .isEqualTo(2048);
+        assertThat(meterRegistry.get("hibernate.query.plan.cache.hit.ratio").gauge().value())
+                .isBetween(0.0, 1.0);
+        assertThat(meterRegistry.get("hibernate.cache.query.plan").tag("result", "miss").functionCounter().count())
+                .isPositive();
+    }
+
+    private DistributionSummary summary(String name, String method) {
+        return DistributionSummary.builder(name)
+                .tags("repository", "MemberRepository", "method", method)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
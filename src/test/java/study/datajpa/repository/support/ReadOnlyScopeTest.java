@@ -0,0 +1,134 @@
+package study.datajpa.repository.support;
+
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+import study.datajpa.service.MemberQueryService;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+public class ReadOnlyScopeTest {
+    @Autowired
+    private MemberRepository memberRepository;
+    @Autowired
+    private TeamRepository teamRepository;
+    @Autowired
+    private MemberReader memberReader;
+    @Autowired
+    private MemberQueryService memberQueryService;
+    @Autowired
+    private EntityManager em;
+
+    @BeforeEach
+    void setUp() {
+        Team team = teamRepository.save(Team.builder().name("teamA").build());
+        memberRepository.save(Member.builder().username("member1").age(10).team(team).build());
+        memberRepository.save(Member.builder().username("member2").age(20).team(team).build());
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void readOnlyScopeServiceTest() {
+        //when
+        List<Member> members = memberReader.findAll();
+
+        //then: 범위 안에서 조회한 엔티티는 읽기 전용, 범위가 끝나면 세션 설정은 원래대로
+        Session session = em.unwrap(Session.class);
+        assertThat(members).hasSize(2)
+                .allMatch(session::isReadOnly);
+        assertThat(memberReader.getFlushMode()).isEqualTo(FlushMode.MANUAL);
+        assertThat(session.isDefaultReadOnly()).isFalse();
+        assertThat(session.getHibernateFlushMode()).isEqualTo(FlushMode.AUTO);
+    }
+
+    @Test
+    void readOnlyScopeFetchJoinTest() {
+        //when
+        List<MemberDto> members = memberQueryService.findMemberDtosWithTeam();
+
+        //then: fetch join 으로 함께 조회한 팀도 읽기 전용
+        Session session = em.unwrap(Session.class);
+        assertThat(members).hasSize(2)
+                .allMatch(dto -> dto.getTeamName().equals("teamA"));
+        Member member = em.find(Member.class, members.get(0).getId());//1차 캐시의 같은 인스턴스
+        assertThat(session.isReadOnly(member)).isTrue();
+        assertThat(session.isReadOnly(member.getTeam())).isTrue();
+    }
+
+    @Test
+    void repositoryInReadWriteTransactionTest() {
+        //given: 범위 밖 읽기/쓰기 트랜잭션에서 리포지토리 직접 호출
+        List<Member> members = memberRepository.findMembersFetchJoin();
+        Session session = em.unwrap(Session.class);
+        assertThat(members).noneMatch(session::isReadOnly);
+
+        //when
+        members.get(0).changeUsername("changed");
+        em.flush();
+        em.clear();
+
+        //then: 일반 관리 엔티티 - 변경 감지, flush 대상
+        assertThat(memberRepository.findById(members.get(0).getId()).orElseThrow().getUsername()).isEqualTo("changed");
+    }
+
+    @Test
+    void readOnlyEntityIsNotFlushedTest() {
+        //given
+        Member member = memberReader.findAll().get(0);
+
+        //when
+        member.changeUsername("changed");
+        em.flush();
+        em.clear();
+
+        //then
+        assertThat(memberRepository.findById(member.getId()).orElseThrow().getUsername()).isNotEqualTo("changed");
+    }
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        MemberReader memberReader(MemberRepository memberRepository, EntityManager em) {
+            return new MemberReader(memberRepository, em);
+        }
+    }
+
+    static class MemberReader {
+        private final MemberRepository memberRepository;
+        private final EntityManager em;
+        private FlushMode flushMode;
+
+        MemberReader(MemberRepository memberRepository, EntityManager em) {
+            this.memberRepository = memberRepository;
+            this.em = em;
+        }
+
+        @ReadOnlyScope
+        public List<Member> findAll() {
+            flushMode = em.unwrap(Session.class).getHibernateFlushMode();
+            return memberRepository.findAll();
+        }
+
+        //프록시(CGLIB)의 필드가 아니라 대상 객체의 필드를 읽도록 메서드로 조회
+        public FlushMode getFlushMode() {
+            return flushMode;
+        }
+    }
+}
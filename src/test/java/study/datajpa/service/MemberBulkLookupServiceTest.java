@@ -0,0 +1,59 @@
+package study.datajpa.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.web.ConnectionPermitTimeoutException;
+import study.datajpa.web.ConnectionPermits;
+
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+public class MemberBulkLookupServiceTest {
+    @Autowired
+    private MemberQueryService memberQueryService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void laterChunkFailureTest() throws Exception {
+        //given: chunk 스레드 1개, 대기열 1개 → 첫 chunk 는 허용 대기, 두번째는 대기열, 세번째는 대기열 초과
+        ConnectionPermits permits = new ConnectionPermits(1, Duration.ofSeconds(10));
+        MemberBulkLookupService service = new MemberBulkLookupService(memberQueryService, permits, objectMapper,
+                1, 5000, 1, 1);
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        other.submit(() -> permits.call(() -> {
+            held.countDown();
+            try {
+                return release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        held.await();
+        StringWriter writer = new StringWriter();
+
+        try {
+            //when then: 앞 chunk 를 기다리지 않고 실패, 응답에는 아무것도 쓰지 않는다.
+            assertThatThrownBy(() -> service.write(List.of(1L, 2L, 3L), writer))
+                    .isInstanceOf(ConnectionPermitTimeoutException.class);
+            assertThat(writer.toString()).isEmpty();
+        } finally {
+            release.countDown();
+            other.shutdown();
+            service.destroy();
+        }
+    }
+}
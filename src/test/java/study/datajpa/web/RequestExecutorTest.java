@@ -0,0 +1,73 @@
+package study.datajpa.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RequestExecutorTest {
+
+    @Test
+    void platformWithoutPermitTest() throws Exception {
+        //given: 다른 작업이 허용을 모두 사용 중
+        ConnectionPermits permits = new ConnectionPermits(1, Duration.ofMillis(10));
+        RequestExecutor requestExecutor = new RequestExecutor(permits, null);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> other = holdPermit(permits, release);
+
+        try {
+            //when
+            String thread = requestExecutor.submit(() -> Thread.currentThread().getName()).join();
+
+            //then: 허용을 기다리지 않고 요청 스레드에서 실행
+            assertThat(thread).isEqualTo(Thread.currentThread().getName());
+        } finally {
+            release.countDown();
+            other.get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void executorWaitsForPermitTest() throws Exception {
+        //given
+        ConnectionPermits permits = new ConnectionPermits(1, Duration.ofMillis(10));
+        RequestExecutor requestExecutor = new RequestExecutor(permits, Executors.newSingleThreadExecutor());
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> other = holdPermit(permits, release);
+
+        try {
+            //when
+            CompletableFuture<String> result = requestExecutor.submit(() -> "member1");
+
+            //then: permit-timeout 후 503
+            assertThatThrownBy(result::join).hasCauseInstanceOf(ConnectionPermitTimeoutException.class);
+        } finally {
+            release.countDown();
+            other.get(10, TimeUnit.SECONDS);
+            requestExecutor.destroy();
+        }
+    }
+
+    private CompletableFuture<Boolean> holdPermit(ConnectionPermits permits, CountDownLatch release) throws InterruptedException {
+        CountDownLatch held = new CountDownLatch(1);
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        CompletableFuture<Boolean> future = CompletableFuture.supplyAsync(() -> permits.call(() -> {
+            held.countDown();
+            try {
+                return release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }), other);
+        other.shutdown();
+        assertThat(held.await(10, TimeUnit.SECONDS)).isTrue();
+        return future;
+    }
+}